@@ -0,0 +1,51 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+/**
+ * Returns the open response stream of the pooled connection. The connection goes back to the pool when
+ * the stream is closed, which the servlet does once the body has been copied to the client.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit-server.client.mode", havingValue = "blocking", matchIfMissing = true)
+public class BlockingServerTransport implements ServerTransport {
+    private final ClientHttpRequestFactory requestFactory;
+
+    private final ObjectMapper objectMapper;
+
+    public BlockingServerTransport(ClientHttpRequestFactory requestFactory, ObjectMapper objectMapper) {
+        this.requestFactory = requestFactory;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Mono<ResponseEntity<Resource>> exchange(HttpMethod method, URI uri, HttpHeaders headers,
+                                                   @Nullable Object body) {
+        return Mono.fromCallable(() -> {
+            ClientHttpRequest request = requestFactory.createRequest(uri, method);
+            request.getHeaders().addAll(headers);
+            if (body != null) {
+                objectMapper.writeValue(request.getBody(), body);
+            }
+            ClientHttpResponse response = request.execute();
+
+            return ResponseEntity.status(response.getRawStatusCode())
+                    .headers(response.getHeaders())
+                    .body(new InputStreamResource(response.getBody()));
+        });
+    }
+}
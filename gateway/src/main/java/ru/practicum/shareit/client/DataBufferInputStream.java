@@ -0,0 +1,136 @@
+package ru.practicum.shareit.client;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Blocking input stream over a body received as data buffers. Only PREFETCH buffers are requested ahead of
+ * the reader, so a slow client slows down the server response instead of filling the heap, and the event
+ * loop never waits: it only hands the buffers over. Closing the stream drops the rest of the body.
+ */
+class DataBufferInputStream extends InputStream implements Subscriber<DataBuffer> {
+    private static final int PREFETCH = 4;
+
+    private static final Object COMPLETE = new Object();
+
+    private final BlockingQueue<Object> signals = new LinkedBlockingQueue<>();
+
+    private volatile Subscription subscription;
+
+    private volatile boolean closed;
+
+    private DataBuffer current;
+
+    private boolean done;
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(PREFETCH);
+    }
+
+    @Override
+    public void onNext(DataBuffer buffer) {
+        signals.add(buffer);
+        if (closed) {
+            releaseAll();
+        }
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        signals.add(error);
+    }
+
+    @Override
+    public void onComplete() {
+        signals.add(COMPLETE);
+    }
+
+    @Override
+    public int read() throws IOException {
+        DataBuffer buffer = next();
+        return buffer != null ? buffer.read() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        DataBuffer buffer = next();
+        if (buffer == null) {
+            return -1;
+        }
+        int count = Math.min(length, buffer.readableByteCount());
+        buffer.read(bytes, offset, count);
+
+        return count;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        // cancelling a body that is still arriving closes its connection under whichever request the pool gave
+        // it to next, so the rest is read and dropped and the connection goes back to the pool as usual
+        if (subscription != null) {
+            subscription.request(Long.MAX_VALUE);
+        }
+        if (current != null) {
+            DataBufferUtils.release(current);
+            current = null;
+        }
+        releaseAll();
+    }
+
+    /**
+     * Returns a buffer with unread bytes, waiting for the next one if the current buffer is used up,
+     * or null at the end of the body.
+     */
+    private DataBuffer next() throws IOException {
+        while (current == null || current.readableByteCount() == 0) {
+            if (current != null) {
+                DataBufferUtils.release(current);
+                current = null;
+                subscription.request(1);
+            }
+            if (done || closed) {
+                return null;
+            }
+            Object signal;
+            try {
+                signal = signals.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            if (signal == COMPLETE) {
+                done = true;
+            } else if (signal instanceof Throwable) {
+                done = true;
+                throw new IOException("Server response failed", (Throwable) signal);
+            } else {
+                current = (DataBuffer) signal;
+            }
+        }
+
+        return current;
+    }
+
+    private void releaseAll() {
+        Object signal;
+        while ((signal = signals.poll()) != null) {
+            if (signal instanceof DataBuffer) {
+                DataBufferUtils.release((DataBuffer) signal);
+            }
+        }
+    }
+}
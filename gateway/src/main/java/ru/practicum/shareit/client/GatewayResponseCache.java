@@ -0,0 +1,238 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of successful GET responses from the server, shared by all clients. Entries are grouped by
+ * the resource prefix of the client, expire after the configured ttl and are dropped a whole group at a time
+ * when a client changes data on the server. The size limit applies to each group. Bodies are kept as the raw
+ * bytes received from the server, responses over the entry size limit are streamed to the client and never
+ * cached. Hit and miss counters are published as the gateway.responses cache metrics tagged with the resource.
+ * <p>
+ * Concurrent misses for the same key share one server call: the first one starts it and the others wait for
+ * its response. The gateway.responses.loads counters tell started calls from shared ones and
+ * gateway.responses.coalesced is the share of misses that did not reach the server.
+ * <p>
+ * Every invalidation of a group moves its generation on and forgets the calls in flight, so a call started
+ * before a change does not cache its response and misses arriving after the change start a call of their own.
+ */
+@Component
+public class GatewayResponseCache {
+    private final ConcurrentMap<String, Group> groups = new ConcurrentHashMap<>();
+
+    private final Duration ttl;
+
+    private final long maximumSize;
+
+    private final int maximumEntrySize;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Counter startedLoads;
+
+    private final Counter sharedLoads;
+
+    public GatewayResponseCache(@Value("${shareit-server.cache.ttl:30s}") Duration ttl,
+                                @Value("${shareit-server.cache.maximum-size:10000}") long maximumSize,
+                                @Value("${shareit-server.cache.maximum-entry-size:256KB}") DataSize maximumEntrySize,
+                                MeterRegistry meterRegistry) {
+        this.ttl = ttl;
+        this.maximumSize = maximumSize;
+        this.maximumEntrySize = Math.toIntExact(maximumEntrySize.toBytes());
+        this.meterRegistry = meterRegistry;
+        this.startedLoads = Counter.builder("gateway.responses.loads")
+                .tag("shared", "false")
+                .register(meterRegistry);
+        this.sharedLoads = Counter.builder("gateway.responses.loads")
+                .tag("shared", "true")
+                .register(meterRegistry);
+        Gauge.builder("gateway.responses.coalesced", this, GatewayResponseCache::coalescedRatio)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param resource resource prefix of the client, the group the response is cached in
+     */
+    public Mono<ResponseEntity<Object>> get(String resource, String key,
+                                            Supplier<Mono<ResponseEntity<Object>>> loader) {
+        return Mono.defer(() -> {
+            Group group = group(resource);
+            ResponseEntity<byte[]> cached = group.cache.getIfPresent(key);
+            if (cached != null) {
+                return Mono.just(replay(cached));
+            }
+            AtomicBoolean started = new AtomicBoolean();
+            Mono<Flight> flight = group.inFlight.computeIfAbsent(key, k -> {
+                started.set(true);
+                return load(group, k, loader);
+            });
+            (started.get() ? startedLoads : sharedLoads).increment();
+
+            return flight.flatMap(loaded -> {
+                ResponseEntity<Object> response = loaded.take();
+                return response != null ? Mono.just(response) : loader.get();
+            });
+        });
+    }
+
+    public void invalidate(Collection<String> resources) {
+        for (String resource : resources) {
+            Group group = groups.get(resource);
+            if (group != null) {
+                group.generation.incrementAndGet();
+                group.inFlight.clear();
+                group.cache.invalidateAll();
+            }
+        }
+    }
+
+    private Group group(String resource) {
+        return groups.computeIfAbsent(resource, name -> {
+            Cache<String, ResponseEntity<byte[]>> cache = Caffeine.newBuilder()
+                    .expireAfterWrite(ttl)
+                    .maximumSize(maximumSize)
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway.responses", "resource", name);
+
+            return new Group(cache);
+        });
+    }
+
+    /**
+     * Starts a server call under the current generation of the group. The call leaves the calls in flight when
+     * it ends, unless an invalidation has already replaced it with a newer one.
+     */
+    private Mono<Flight> load(Group group, String key, Supplier<Mono<ResponseEntity<Object>>> loader) {
+        long generation = group.generation.get();
+        AtomicReference<Mono<Flight>> self = new AtomicReference<>();
+        Mono<Flight> flight = loader.get()
+                .map(response -> buffer(group, generation, key, response))
+                .doFinally(signal -> group.inFlight.remove(key, self.get()))
+                .cache();
+        self.set(flight);
+
+        return flight;
+    }
+
+    /**
+     * Buffers a response so that it can be replayed, successful ones are also cached unless the group has been
+     * invalidated since the call started. The generation is checked again after the put, an invalidation running
+     * in between either clears the entry itself or is seen here. A body larger than the entry limit is passed on
+     * as a stream of the bytes already read followed by the rest of the server response.
+     */
+    private Flight buffer(Group group, long generation, String key, ResponseEntity<Object> response) {
+        if (!(response.getBody() instanceof Resource)) {
+            return Flight.streamed(response);
+        }
+        try {
+            InputStream body = ((Resource) response.getBody()).getInputStream();
+            byte[] head = body.readNBytes(maximumEntrySize + 1);
+            if (head.length > maximumEntrySize) {
+                return Flight.streamed(ResponseEntity.status(response.getStatusCode())
+                        .headers(response.getHeaders())
+                        .body(new InputStreamResource(new SequenceInputStream(new ByteArrayInputStream(head), body))));
+            }
+            body.close();
+            ResponseEntity<byte[]> buffered = new ResponseEntity<>(head, response.getHeaders(),
+                    response.getStatusCode());
+            if (buffered.getStatusCode().is2xxSuccessful() && group.generation.get() == generation) {
+                group.cache.put(key, buffered);
+                if (group.generation.get() != generation) {
+                    group.cache.asMap().remove(key, buffered);
+                }
+            }
+
+            return Flight.buffered(buffered);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private double coalescedRatio() {
+        double shared = sharedLoads.count();
+        double total = shared + startedLoads.count();
+
+        return total == 0 ? 0 : shared / total;
+    }
+
+    private static ResponseEntity<Object> replay(ResponseEntity<byte[]> cached) {
+        return ResponseEntity.status(cached.getStatusCode())
+                .headers(cached.getHeaders())
+                .body(new InputStreamResource(new ByteArrayInputStream(cached.getBody())));
+    }
+
+    /**
+     * Cached responses and calls in flight of one resource prefix.
+     */
+    private static class Group {
+        private final Cache<String, ResponseEntity<byte[]>> cache;
+
+        private final ConcurrentMap<String, Mono<Flight>> inFlight = new ConcurrentHashMap<>();
+
+        private final AtomicLong generation = new AtomicLong();
+
+        Group(Cache<String, ResponseEntity<byte[]>> cache) {
+            this.cache = cache;
+        }
+    }
+
+    /**
+     * Outcome of a server call shared by concurrent misses. A buffered response is replayed to every one of them,
+     * a streamed one can be read only once, so the rest have to call the server themselves.
+     */
+    private static class Flight {
+        private final ResponseEntity<byte[]> buffered;
+
+        private final ResponseEntity<Object> streamed;
+
+        private final AtomicBoolean taken = new AtomicBoolean();
+
+        private Flight(ResponseEntity<byte[]> buffered, ResponseEntity<Object> streamed) {
+            this.buffered = buffered;
+            this.streamed = streamed;
+        }
+
+        static Flight buffered(ResponseEntity<byte[]> response) {
+            return new Flight(response, null);
+        }
+
+        static Flight streamed(ResponseEntity<Object> response) {
+            return new Flight(null, response);
+        }
+
+        ResponseEntity<Object> take() {
+            if (buffered != null) {
+                return replay(buffered);
+            }
+
+            return taken.compareAndSet(false, true) ? streamed : null;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Connection pool and timeouts of the HTTP client shared by all server clients.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.http")
+public class HttpClientProperties {
+    /**
+     * Maximum number of open connections to the server.
+     */
+    private int maxTotal = 200;
+
+    /**
+     * Maximum number of open connections per route; all clients talk to the same server, so a single route.
+     */
+    private int maxPerRoute = 200;
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Maximum wait for a free connection from the pool.
+     */
+    private Duration connectionRequestTimeout = Duration.ofSeconds(2);
+
+    private Duration readTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Connections idle for longer are closed by a background thread.
+     */
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+
+    /**
+     * Keep-alive used when the server response does not say how long the connection may be kept.
+     */
+    private Duration keepAlive = Duration.ofSeconds(60);
+}
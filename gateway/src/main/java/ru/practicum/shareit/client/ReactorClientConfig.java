@@ -0,0 +1,38 @@
+package ru.practicum.shareit.client;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Reactor Netty client for the reactive mode, sized by the same shareit-server.http properties as the
+ * blocking pool. Requests waiting for a connection are queued without a thread, bounded only by the lease
+ * timeout. Pool occupancy is published as the reactor.netty.connection.provider metrics.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit-server.client.mode", havingValue = "reactive")
+@EnableConfigurationProperties(HttpClientProperties.class)
+public class ReactorClientConfig {
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider shareItServerConnectionProvider(HttpClientProperties properties) {
+        return ConnectionProvider.builder("shareit-server")
+                .maxConnections(properties.getMaxTotal())
+                .pendingAcquireMaxCount(-1)
+                .pendingAcquireTimeout(properties.getConnectionRequestTimeout())
+                .maxIdleTime(properties.getMaxIdleTime())
+                .evictInBackground(properties.getMaxIdleTime())
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public HttpClient shareItServerHttpClient(ConnectionProvider connectionProvider, HttpClientProperties properties) {
+        return HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getReadTimeout());
+    }
+}
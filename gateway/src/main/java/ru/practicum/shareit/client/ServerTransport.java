@@ -0,0 +1,20 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+/**
+ * Sends a request to the server. The response is returned as is, whatever its status, with the server headers
+ * and the raw body, which is never parsed by the gateway. The implementation is chosen by
+ * {@code shareit-server.client.mode}: {@code blocking} runs the call on the servlet thread and streams the body,
+ * {@code reactive} releases the thread until the server answers and hands over small bodies as bytes.
+ */
+public interface ServerTransport {
+    Mono<ResponseEntity<Resource>> exchange(HttpMethod method, URI uri, HttpHeaders headers, @Nullable Object body);
+}
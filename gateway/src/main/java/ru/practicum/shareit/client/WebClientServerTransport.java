@@ -0,0 +1,89 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+
+/**
+ * Collects a response body of known length up to the cache entry limit into a single byte array without
+ * decoding it, the event loop never blocks on the servlet output stream. Larger bodies and bodies of unknown
+ * length, such as the streamed user list, are passed on as a stream read by the servlet as the buffers arrive.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit-server.client.mode", havingValue = "reactive")
+public class WebClientServerTransport implements ServerTransport {
+    private static final byte[] EMPTY_BODY = new byte[0];
+
+    private final WebClient webClient;
+
+    private final long maximumBufferedSize;
+
+    public WebClientServerTransport(WebClient.Builder builder, HttpClient shareItServerHttpClient,
+                                    @Value("${shareit-server.cache.maximum-entry-size:256KB}") DataSize maximumBufferedSize) {
+        this.webClient = builder
+                .clientConnector(new ReactorClientHttpConnector(shareItServerHttpClient))
+                .build();
+        this.maximumBufferedSize = maximumBufferedSize.toBytes();
+    }
+
+    @Override
+    public Mono<ResponseEntity<Resource>> exchange(HttpMethod method, URI uri, HttpHeaders headers,
+                                                   @Nullable Object body) {
+        WebClient.RequestBodySpec request = webClient.method(method)
+                .uri(uri)
+                .headers(requestHeaders -> requestHeaders.addAll(headers));
+        WebClient.RequestHeadersSpec<?> spec = body != null ? request.bodyValue(body) : request;
+
+        return spec.retrieve()
+                .onRawStatus(status -> true, response -> Mono.empty())
+                .toEntityFlux(DataBuffer.class)
+                .flatMap(response -> {
+                    long length = response.getHeaders().getContentLength();
+                    if (length >= 0 && length <= maximumBufferedSize) {
+                        return buffer(response);
+                    }
+                    DataBufferInputStream stream = new DataBufferInputStream();
+                    response.getBody().subscribe(stream);
+
+                    // whoever reads the stream must not block the event loop that fills it
+                    return Mono.just(toResponse(response, new InputStreamResource(stream)))
+                            .publishOn(Schedulers.boundedElastic());
+                });
+    }
+
+    private static Mono<ResponseEntity<Resource>> buffer(ResponseEntity<Flux<DataBuffer>> response) {
+        return DataBufferUtils.join(response.getBody())
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                })
+                .defaultIfEmpty(EMPTY_BODY)
+                .map(bytes -> toResponse(response, new InputStreamResource(new ByteArrayInputStream(bytes))));
+    }
+
+    private static ResponseEntity<Resource> toResponse(ResponseEntity<Flux<DataBuffer>> response, Resource body) {
+        return ResponseEntity.status(response.getStatusCodeValue())
+                .headers(response.getHeaders())
+                .body(body);
+    }
+}
@@ -2,16 +2,21 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.ItemRequestDto;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Controller
 @RequestMapping("/items")
@@ -22,29 +27,36 @@ public class ItemController {
     private final ItemClient itemClient;
 
     @GetMapping
-    public ResponseEntity<Object> getItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public Mono<ResponseEntity<Object>> getItems(@RequestHeader("X-Sharer-User-Id") Long userId,
                                            @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
                                            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
         log.info("Get all items from user {}", userId);
         return itemClient.getItems(userId, from, size);
     }
 
+    @GetMapping(params = "ids")
+    public Mono<ResponseEntity<Object>> getItemsById(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                     @Size(min = 1, max = 100) @RequestParam List<@Positive Long> ids) {
+        log.info("Get items {}", ids);
+        return itemClient.getItemsById(userId, ids);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Object> getItem(@PathVariable Long id,
+    public Mono<ResponseEntity<Object>> getItem(@PathVariable Long id,
                                           @RequestHeader("X-Sharer-User-Id") Long userId) {
         log.info("Get item {}", id);
         return itemClient.getItem(id, userId);
     }
 
     @PostMapping
-    public ResponseEntity<Object> createItem(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public Mono<ResponseEntity<Object>> createItem(@RequestHeader("X-Sharer-User-Id") Long userId,
                                              @RequestBody @Valid ItemRequestDto requestDto) {
         log.info("Create item");
         return itemClient.createItem(userId, requestDto);
     }
 
     @PatchMapping("/{id}")
-    public ResponseEntity<Object> updateItem(@RequestBody ItemRequestDto requestDto,
+    public Mono<ResponseEntity<Object>> updateItem(@RequestBody ItemRequestDto requestDto,
                                              @PathVariable Long id,
                                              @RequestHeader("X-Sharer-User-Id") Long userId) {
         log.info("Update item {}", id);
@@ -52,21 +64,43 @@ public class ItemController {
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Object> deleteItem(@PathVariable Long id) {
+    public Mono<ResponseEntity<Object>> deleteItem(@PathVariable Long id) {
         log.info("Delete item {}", id);
         return itemClient.deleteItem(id);
     }
 
+    @GetMapping("/{id}/availability")
+    public Mono<ResponseEntity<Object>> getAvailability(@PathVariable Long id,
+                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                        LocalDateTime from,
+                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                        LocalDateTime to) {
+        log.info("Get availability of item {} from {} to {}", id, from, to);
+        return itemClient.getAvailability(id, from, to);
+    }
+
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItem(@RequestParam String text,
+    public Mono<ResponseEntity<Object>> searchItem(@RequestParam String text,
                                              @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
         log.info("Search items by text {}", text);
         return itemClient.searchItem(text, from, size);
     }
 
+    @GetMapping(value = "/search", params = {"start", "end"})
+    public Mono<ResponseEntity<Object>> searchAvailableItem(@RequestParam String text,
+                                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                            LocalDateTime start,
+                                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                            LocalDateTime end,
+                                                            @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        log.info("Search items by text {} free from {} to {}", text, start, end);
+        return itemClient.searchAvailableItem(text, start, end, from, size);
+    }
+
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> createComment(@PathVariable Long itemId, @RequestHeader("X-Sharer-User-Id") Long userId,
+    public Mono<ResponseEntity<Object>> createComment(@PathVariable Long itemId, @RequestHeader("X-Sharer-User-Id") Long userId,
                                                 @Valid @RequestBody CommentRequestDto requestDto) {
         log.info("Create comment to item {}", itemId);
         return itemClient.createComment(itemId, userId, requestDto);
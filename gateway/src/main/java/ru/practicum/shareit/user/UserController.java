@@ -2,13 +2,19 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.user.dto.UserRequestDto;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
 
 @Controller
 @RequestMapping("/users")
@@ -19,32 +25,45 @@ public class UserController {
     private final UserClient userClient;
 
     @GetMapping
-    public ResponseEntity<Object> getUsers() {
+    public Mono<ResponseEntity<Object>> getUsers(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         log.info("Get all users");
-        return userClient.getUsers();
+        return userClient.getUsers(accept);
+    }
+
+    @GetMapping(params = "size")
+    public Mono<ResponseEntity<Object>> getUsers(@PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                 @Positive @RequestParam(name = "size") Integer size) {
+        log.info("Get users from {}", from);
+        return userClient.getUsers(from, size);
+    }
+
+    @GetMapping(params = "ids")
+    public Mono<ResponseEntity<Object>> getUsersById(@Size(min = 1, max = 100) @RequestParam List<@Positive Long> ids) {
+        log.info("Get users {}", ids);
+        return userClient.getUsersById(ids);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Object> getUser(@PathVariable Long id) {
+    public Mono<ResponseEntity<Object>> getUser(@PathVariable Long id) {
         log.info("Get user {}", id);
         return userClient.getUser(id);
     }
 
     @PostMapping
-    public ResponseEntity<Object> createUser(@RequestBody @Valid UserRequestDto requestDto) {
+    public Mono<ResponseEntity<Object>> createUser(@RequestBody @Valid UserRequestDto requestDto) {
         log.info("Creating user");
         return userClient.createUser(requestDto);
     }
 
     @PatchMapping("/{id}")
-    public ResponseEntity<Object> updateUser(@RequestBody UserRequestDto requestDto,
+    public Mono<ResponseEntity<Object>> updateUser(@RequestBody UserRequestDto requestDto,
                                              @PathVariable Long id) {
         log.info("Update user {}", id);
         return userClient.updateUser(id, requestDto);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Object> deleteUser(@PathVariable Long id) {
+    public Mono<ResponseEntity<Object>> deleteUser(@PathVariable Long id) {
         log.info("Delete user {}", id);
         return userClient.deleteUser(id);
     }
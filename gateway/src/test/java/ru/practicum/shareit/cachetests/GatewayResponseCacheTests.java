@@ -0,0 +1,181 @@
+package ru.practicum.shareit.cachetests;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import ru.practicum.shareit.booking.BookingClient;
+import ru.practicum.shareit.client.GatewayResponseCache;
+import ru.practicum.shareit.client.ServerTransport;
+import ru.practicum.shareit.item.ItemClient;
+import ru.practicum.shareit.user.UserClient;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GatewayResponseCacheTests {
+    private static final int MAXIMUM_ENTRY_SIZE = 16;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private GatewayResponseCache cache;
+
+    @BeforeEach
+    void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new GatewayResponseCache(Duration.ofMinutes(1), 100, DataSize.ofBytes(MAXIMUM_ENTRY_SIZE),
+                meterRegistry);
+    }
+
+    @Test
+    void concurrentMissesShareOneCallTest() throws Exception {
+        Loader loader = new Loader();
+        CompletableFuture<ResponseEntity<Object>> first = cache.get("/items", "key", loader).toFuture();
+        CompletableFuture<ResponseEntity<Object>> second = cache.get("/items", "key", loader).toFuture();
+        assertEquals(1, loader.calls.get());
+        assertFalse(first.isDone());
+        loader.emit("body");
+        assertEquals("body", read(first.get()));
+        assertEquals("body", read(second.get()));
+        assertEquals(1, loads(false));
+        assertEquals(1, loads(true));
+        assertEquals(0.5, meterRegistry.get("gateway.responses.coalesced").gauge().value());
+
+        assertEquals("body", read(cache.get("/items", "key", loader).block()));
+        assertEquals(1, loader.calls.get());
+    }
+
+    @Test
+    void invalidateDuringCallSkipsCachingTest() throws Exception {
+        Loader loader = new Loader();
+        CompletableFuture<ResponseEntity<Object>> first = cache.get("/items", "key", loader).toFuture();
+        cache.invalidate(List.of("/items"));
+        loader.emit("old");
+        assertEquals("old", read(first.get()));
+
+        Loader next = new Loader();
+        CompletableFuture<ResponseEntity<Object>> second = cache.get("/items", "key", next).toFuture();
+        assertEquals(1, next.calls.get());
+        next.emit("new");
+        assertEquals("new", read(second.get()));
+        assertEquals(2, loads(false));
+        assertEquals(0, loads(true));
+    }
+
+    @Test
+    void missAfterInvalidateStartsOwnCallTest() throws Exception {
+        Loader loader = new Loader();
+        CompletableFuture<ResponseEntity<Object>> first = cache.get("/items", "key", loader).toFuture();
+        cache.invalidate(List.of("/items"));
+        Loader next = new Loader();
+        CompletableFuture<ResponseEntity<Object>> second = cache.get("/items", "key", next).toFuture();
+        assertEquals(1, next.calls.get());
+        loader.emit("old");
+        assertEquals("old", read(first.get()));
+        assertFalse(second.isDone());
+        next.emit("new");
+        assertEquals("new", read(second.get()));
+
+        assertEquals("new", read(cache.get("/items", "key", new Loader()).block()));
+    }
+
+    @Test
+    void oversizedBodyMakesOtherWaitersCallTest() throws Exception {
+        String body = "x".repeat(MAXIMUM_ENTRY_SIZE * 2);
+        Loader loader = new Loader();
+        CompletableFuture<ResponseEntity<Object>> first = cache.get("/items", "key", loader).toFuture();
+        CompletableFuture<ResponseEntity<Object>> second = cache.get("/items", "key", loader).toFuture();
+        assertEquals(1, loader.calls.get());
+        loader.emit(body);
+        assertEquals(body, read(first.get()));
+        assertEquals(body, read(second.get()));
+        assertEquals(2, loader.calls.get());
+
+        assertEquals(body, read(cache.get("/items", "key", loader).block()));
+        assertEquals(3, loader.calls.get());
+    }
+
+    @Test
+    void changeInvalidatesAffectedResourcesTest() {
+        ServerTransport transport = mock(ServerTransport.class);
+        when(transport.exchange(any(), any(), any(), any()))
+                .thenAnswer(invocation -> Mono.just(ResponseEntity.ok(resource("body"))));
+        UserClient userClient = new UserClient("http://server", transport, cache);
+        ItemClient itemClient = new ItemClient("http://server", transport, cache);
+        BookingClient bookingClient = new BookingClient("http://server", transport, cache);
+
+        userClient.getUser(1L).block();
+        itemClient.getItem(1L, 1L).block();
+        bookingClient.approveStatus(1L, 1L, true).block();
+        userClient.getUser(1L).block();
+        itemClient.getItem(1L, 1L).block();
+        verify(transport, times(1)).exchange(eq(HttpMethod.GET), argThat(uri -> path(uri, "/users")), any(), any());
+        verify(transport, times(2)).exchange(eq(HttpMethod.GET), argThat(uri -> path(uri, "/items")), any(), any());
+
+        userClient.deleteUser(1L).block();
+        userClient.getUser(1L).block();
+        itemClient.getItem(1L, 1L).block();
+        verify(transport, times(2)).exchange(eq(HttpMethod.GET), argThat(uri -> path(uri, "/users")), any(), any());
+        verify(transport, times(3)).exchange(eq(HttpMethod.GET), argThat(uri -> path(uri, "/items")), any(), any());
+    }
+
+    private double loads(boolean shared) {
+        return meterRegistry.get("gateway.responses.loads")
+                .tag("shared", String.valueOf(shared))
+                .counter()
+                .count();
+    }
+
+    private static boolean path(URI uri, String resource) {
+        return uri != null && uri.getPath().startsWith(resource);
+    }
+
+    private static Resource resource(String body) {
+        return new ByteArrayResource(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(ResponseEntity<Object> response) throws IOException {
+        return new String(((Resource) response.getBody()).getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Server call answered by the test, every call of the loader returns the same pending response.
+     */
+    private static class Loader implements Supplier<Mono<ResponseEntity<Object>>> {
+        private final Sinks.One<ResponseEntity<Object>> sink = Sinks.one();
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public Mono<ResponseEntity<Object>> get() {
+            calls.incrementAndGet();
+            return sink.asMono();
+        }
+
+        void emit(String body) {
+            sink.tryEmitValue(ResponseEntity.ok(resource(body)));
+        }
+    }
+}
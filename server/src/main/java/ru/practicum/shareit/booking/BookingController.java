@@ -2,6 +2,8 @@ package ru.practicum.shareit.booking;
 
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.BookingResultDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.service.BookingService;
 
@@ -22,6 +24,19 @@ public class BookingController {
         return bookingService.create(bookingShortDto, userId);
     }
 
+    @PostMapping("/batch")
+    public List<BookingResultDto> createAll(@RequestBody List<BookingShortDto> bookingShortDtos,
+                                            @RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingService.createAll(bookingShortDtos, userId);
+    }
+
+    @PatchMapping("/batch")
+    public List<BookingResultDto> approveAll(@RequestBody List<Long> bookingIds,
+                                             @RequestHeader("X-Sharer-User-Id") Long userId,
+                                             @RequestParam Boolean approved) {
+        return bookingService.approveAll(bookingIds, userId, approved);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingDto approve(@PathVariable Long bookingId, @RequestHeader("X-Sharer-User-Id") Long userId,
                               @RequestParam Boolean approved) {
@@ -44,6 +59,28 @@ public class BookingController {
         return bookingService.getAllByUser(userId, state, from, size);
     }
 
+    @GetMapping(path = "/owner", params = "cursor")
+    public BookingPageDto getAllByOwnerAfter(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                             @RequestParam(defaultValue = "ALL") String state,
+                                             @RequestParam String cursor,
+                                             @RequestParam(defaultValue = "10") int size) {
+        return bookingService.getAllByOwnerAfter(userId, state, cursor, size);
+    }
+
+    @GetMapping(params = "cursor")
+    public BookingPageDto getAllByUserAfter(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                            @RequestParam(defaultValue = "ALL") String state,
+                                            @RequestParam String cursor,
+                                            @RequestParam(defaultValue = "10") int size) {
+        return bookingService.getAllByUserAfter(userId, state, cursor, size);
+    }
+
+    @GetMapping(params = "ids")
+    public List<BookingDto> getAllById(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                       @RequestParam List<Long> ids) {
+        return bookingService.getAllById(ids, userId);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDto getById(@PathVariable Long bookingId, @RequestHeader("X-Sharer-User-Id") Long userId) {
         return bookingService.getById(bookingId, userId);
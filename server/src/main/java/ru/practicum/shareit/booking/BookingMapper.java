@@ -1,29 +1,26 @@
 package ru.practicum.shareit.booking;
 
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.BookingResultDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.model.Booking;
 
+import java.util.List;
+
 public class BookingMapper {
     public static BookingDto toBookingDto(Booking booking) {
         return BookingDto.builder()
                 .id(booking.getId())
                 .start(booking.getStart())
                 .end(booking.getEnd())
-                .booker(booking.getBooker())
+                .booker(new BookingDto.Booker(booking.getBooker().getId()))
                 .status(booking.getStatus())
-                .item(booking.getItem())
-                .build();
-    }
-
-    public static Booking toBooking(BookingDto bookingDto) {
-        return Booking.builder()
-                .id(bookingDto.getId())
-                .start(bookingDto.getStart())
-                .end(bookingDto.getEnd())
-                .booker(bookingDto.getBooker())
-                .status(bookingDto.getStatus())
-                .item(bookingDto.getItem())
+                .item(new BookingDto.Item(booking.getItem().getId(), booking.getItem().getName()))
                 .build();
     }
 
@@ -44,4 +41,28 @@ public class BookingMapper {
                 .end(booking.getEnd())
                 .build();
     }
+
+    public static BookingResultDto toBookingResultDto(BookingDto bookingDto) {
+        return BookingResultDto.builder()
+                .status(HttpStatus.OK.value())
+                .booking(bookingDto)
+                .build();
+    }
+
+    public static BookingResultDto toBookingResultDto(RuntimeException exception) {
+        ResponseStatus responseStatus = AnnotationUtils.findAnnotation(exception.getClass(), ResponseStatus.class);
+        HttpStatus status = responseStatus != null ? responseStatus.value() : HttpStatus.INTERNAL_SERVER_ERROR;
+        return BookingResultDto.builder()
+                .status(status.value())
+                .error(exception.getMessage())
+                .build();
+    }
+
+    public static BookingPageDto toBookingPageDto(Slice<BookingDto> bookings) {
+        List<BookingDto> content = bookings.getContent();
+        return BookingPageDto.builder()
+                .bookings(content)
+                .nextCursor(bookings.hasNext() ? BookingCursor.of(content.get(content.size() - 1)).encode() : null)
+                .build();
+    }
 }
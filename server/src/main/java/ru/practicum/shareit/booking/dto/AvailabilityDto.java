@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Builder
+public class AvailabilityDto {
+    private LocalDateTime start;
+
+    private LocalDateTime end;
+
+    private Boolean available;
+}
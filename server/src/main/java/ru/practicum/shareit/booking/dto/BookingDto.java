@@ -1,17 +1,21 @@
 package ru.practicum.shareit.booking.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 import ru.practicum.shareit.booking.BookingStatus;
-import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 
+/**
+ * Booking as returned by the API. Holds only the item and booker fields the clients read, so it can be built
+ * directly by a JPQL constructor expression without loading any entity.
+ */
 @Getter
 @Setter
 @Builder
+@AllArgsConstructor
 public class BookingDto {
     private Long id;
 
@@ -21,7 +25,28 @@ public class BookingDto {
 
     private BookingStatus status;
 
-    private User booker;
+    private Booker booker;
 
     private Item item;
+
+    public BookingDto(Long id, LocalDateTime start, LocalDateTime end, BookingStatus status, Long bookerId,
+                      Long itemId, String itemName) {
+        this(id, start, end, status, new Booker(bookerId), new Item(itemId, itemName));
+    }
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    public static class Booker {
+        private Long id;
+    }
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    public static class Item {
+        private Long id;
+
+        private String name;
+    }
 }
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Period of a booking, selected without the rest of the row.
+ */
+public interface BookingPeriod {
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Outcome of one entry of a batch request: the HTTP status the entry would get on its own and either
+ * the booking or the error message.
+ */
+@Getter
+@Setter
+@Builder
+public class BookingResultDto {
+    private int status;
+
+    private BookingDto booking;
+
+    private String error;
+}
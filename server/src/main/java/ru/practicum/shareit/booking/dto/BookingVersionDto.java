@@ -0,0 +1,26 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Getter;
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Booking as returned by the API together with the item owner and the version of the row, read before
+ * a conditional update without loading the entity.
+ */
+@Getter
+public class BookingVersionDto {
+    private final BookingDto booking;
+
+    private final Long ownerId;
+
+    private final Long version;
+
+    public BookingVersionDto(Long id, LocalDateTime start, LocalDateTime end, BookingStatus status, Long bookerId,
+                             Long itemId, String itemName, Long ownerId, Long version) {
+        this.booking = new BookingDto(id, start, end, status, bookerId, itemId, itemName);
+        this.ownerId = ownerId;
+        this.version = version;
+    }
+}
@@ -1,42 +1,122 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPeriod;
+import ru.practicum.shareit.booking.dto.BookingVersionDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findAllByItemIdOrderByStartAsc(Long itemId);
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
+    String SELECT_BOOKING_DTO = "select new ru.practicum.shareit.booking.dto.BookingDto(b.id, b.start, b.end, " +
+            "b.status, b.booker.id, i.id, i.name) from Booking b join b.item i ";
 
-    List<Booking> findAllByItemIdOrderByStartDesc(Long itemId);
+    @EntityGraph("Booking.withItemAndBooker")
+    @Override
+    Optional<Booking> findById(Long id);
 
-    Page<Booking> findAllByBooker(User booker, Pageable pageable);
+    @EntityGraph("Booking.withItemAndBooker")
+    List<Booking> findAllByIdIn(Collection<Long> ids);
+
+    @Query(SELECT_BOOKING_DTO + "where b.id in ?1 and (b.booker.id = ?2 or i.owner.id = ?2)")
+    List<BookingDto> findAllByIdInAndBookerIdOrItemOwnerId(Collection<Long> ids, Long userId);
+
+    @Query("select new ru.practicum.shareit.booking.dto.BookingVersionDto(b.id, b.start, b.end, b.status, " +
+            "b.booker.id, i.id, i.name, i.owner.id, b.version) from Booking b join b.item i where b.id = ?1")
+    Optional<BookingVersionDto> findVersionById(Long id);
+
+    /**
+     * Changes the status of a waiting booking that still has the version read by the caller. Returns zero when
+     * another request has changed the booking since.
+     */
+    @Modifying
+    @Query("update Booking b set b.status = ?3, b.version = b.version + 1 " +
+            "where b.id = ?1 and b.version = ?2 and b.status = ru.practicum.shareit.booking.BookingStatus.WAITING")
+    int updateWaitingStatus(Long id, Long version, BookingStatus status);
+
+    List<Booking> findAllByStatusIn(Collection<BookingStatus> statuses);
+
+    List<BookingPeriod> findAllByItemIdAndStatusInOrderByStartAsc(Long itemId, Collection<BookingStatus> statuses);
+
+    /**
+     * Ids of the given items with a booking in one of the statuses that overlaps the half-open period.
+     */
+    @Query("select distinct b.item.id from Booking b " +
+            "where b.item.id in ?1 and b.status in ?2 and b.start < ?4 and b.end > ?3")
+    List<Long> findItemIdsByItemIdInAndStatusInAndPeriod(Collection<Long> itemIds, Collection<BookingStatus> statuses,
+                                                         LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Whether a waiting or approved booking of the item overlaps the half-open period. PostgreSQL only,
+     * the condition matches the ex_bookings_item_period exclusion constraint, so it is answered from its index.
+     */
+    @Query(value = "select exists(select 1 from bookings b where b.item_id = ?1 " +
+            "and b.status in ('WAITING', 'APPROVED') " +
+            "and tsrange(b.start_date, b.end_date) && tsrange(cast(?2 as timestamp), cast(?3 as timestamp)))",
+            nativeQuery = true)
+    boolean existsOverlapping(Long itemId, LocalDateTime start, LocalDateTime end);
+
+    Optional<Booking> findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(Long itemId, BookingStatus status,
+                                                                               LocalDateTime now);
+
+    Optional<Booking> findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(Long itemId, BookingStatus status,
+                                                                            LocalDateTime now);
+
+    @Query("select b from Booking b " +
+            "where b.item.id in ?1 and b.status = ?2 " +
+            "and b.start = (select max(lb.start) from Booking lb " +
+            "where lb.item.id = b.item.id and lb.status = ?2 and lb.start < ?3)")
+    List<Booking> findLastBookingsByItemIdIn(Collection<Long> itemIds, BookingStatus status, LocalDateTime now);
+
+    @Query("select b from Booking b " +
+            "where b.item.id in ?1 and b.status = ?2 " +
+            "and b.start = (select min(nb.start) from Booking nb " +
+            "where nb.item.id = b.item.id and nb.status = ?2 and nb.start > ?3)")
+    List<Booking> findNextBookingsByItemIdIn(Collection<Long> itemIds, BookingStatus status, LocalDateTime now);
+
+    @Query(SELECT_BOOKING_DTO + "where b.booker = ?1")
+    Slice<BookingDto> findAllByBooker(User booker, Pageable pageable);
 
     List<Booking> findAllByBookerIdAndItemIdAndStatusEqualsAndEndIsBefore(Long bookerId, Long itemId,
                                                                           BookingStatus status, LocalDateTime end);
 
-    Page<Booking> findAllByBookerAndStartBeforeAndEndAfter(User booker, LocalDateTime start, LocalDateTime end,
-                                                           Pageable pageable);
+    @Query(SELECT_BOOKING_DTO + "where b.booker = ?1 and b.start < ?2 and b.end > ?3")
+    Slice<BookingDto> findAllByBookerAndStartBeforeAndEndAfter(User booker, LocalDateTime start, LocalDateTime end,
+                                                              Pageable pageable);
 
-    Page<Booking> findAllByBookerAndEndBefore(User booker, LocalDateTime end, Pageable pageable);
+    @Query(SELECT_BOOKING_DTO + "where b.booker = ?1 and b.end < ?2")
+    Slice<BookingDto> findAllByBookerAndEndBefore(User booker, LocalDateTime end, Pageable pageable);
 
-    Page<Booking> findAllByBookerAndStartAfter(User booker, LocalDateTime start, Pageable pageable);
+    @Query(SELECT_BOOKING_DTO + "where b.booker = ?1 and b.start > ?2")
+    Slice<BookingDto> findAllByBookerAndStartAfter(User booker, LocalDateTime start, Pageable pageable);
 
-    Page<Booking> findAllByBookerAndStatusEquals(User booker, BookingStatus status, Pageable pageable);
+    @Query(SELECT_BOOKING_DTO + "where b.booker = ?1 and b.status = ?2")
+    Slice<BookingDto> findAllByBookerAndStatusEquals(User booker, BookingStatus status, Pageable pageable);
 
-    Page<Booking> findAllByItemOwner(User owner, Pageable pageable);
+    @Query(SELECT_BOOKING_DTO + "where i.owner = ?1")
+    Slice<BookingDto> findAllByItemOwner(User owner, Pageable pageable);
 
-    Page<Booking> findAllByItemOwnerAndStartBeforeAndEndAfter(User owner, LocalDateTime start,
-                                                              LocalDateTime end, Pageable pageable);
+    @Query(SELECT_BOOKING_DTO + "where i.owner = ?1 and b.start < ?2 and b.end > ?3")
+    Slice<BookingDto> findAllByItemOwnerAndStartBeforeAndEndAfter(User owner, LocalDateTime start,
+                                                                 LocalDateTime end, Pageable pageable);
 
-    Page<Booking> findAllByItemOwnerAndEndBefore(User owner, LocalDateTime end, Pageable pageable);
+    @Query(SELECT_BOOKING_DTO + "where i.owner = ?1 and b.end < ?2")
+    Slice<BookingDto> findAllByItemOwnerAndEndBefore(User owner, LocalDateTime end, Pageable pageable);
 
-    Page<Booking> findAllByItemOwnerAndStartAfter(User owner, LocalDateTime start, Pageable pageable);
+    @Query(SELECT_BOOKING_DTO + "where i.owner = ?1 and b.start > ?2")
+    Slice<BookingDto> findAllByItemOwnerAndStartAfter(User owner, LocalDateTime start, Pageable pageable);
 
-    Page<Booking> findAllByItemOwnerAndStatusEquals(User owner, BookingStatus status, Pageable pageable);
+    @Query(SELECT_BOOKING_DTO + "where i.owner = ?1 and b.status = ?2")
+    Slice<BookingDto> findAllByItemOwnerAndStatusEquals(User owner, BookingStatus status, Pageable pageable);
 }
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Slice;
+import org.springframework.lang.Nullable;
+import ru.practicum.shareit.booking.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDto;
+
+public interface BookingRepositoryCustom {
+    Slice<BookingDto> findAllByBookerIdAfter(Long bookerId, String state, @Nullable BookingCursor cursor, int size);
+
+    Slice<BookingDto> findAllByItemOwnerIdAfter(Long ownerId, String state, @Nullable BookingCursor cursor, int size);
+}
@@ -0,0 +1,91 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.lang.Nullable;
+import ru.practicum.shareit.booking.BookingCursor;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Keyset pagination over bookings: the next page is selected by (start, id) of the last returned booking,
+ * so the database never skips rows with OFFSET and no count query is issued. Rows are projected straight into
+ * {@link BookingDto}, no entity is loaded.
+ */
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<BookingDto> findAllByBookerIdAfter(Long bookerId, String state, @Nullable BookingCursor cursor,
+                                                    int size) {
+        return findAllAfter((booking, item) -> booking.get("booker").get("id"), bookerId, state, cursor, size);
+    }
+
+    @Override
+    public Slice<BookingDto> findAllByItemOwnerIdAfter(Long ownerId, String state, @Nullable BookingCursor cursor,
+                                                       int size) {
+        return findAllAfter((booking, item) -> item.get("owner").get("id"), ownerId, state, cursor, size);
+    }
+
+    private Slice<BookingDto> findAllAfter(BiFunction<Root<Booking>, Join<Booking, Item>, Path<Long>> userId, Long id,
+                                           String state, BookingCursor cursor, int size) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingDto> query = builder.createQuery(BookingDto.class);
+        Root<Booking> booking = query.from(Booking.class);
+        Join<Booking, Item> item = booking.join("item");
+        Path<LocalDateTime> start = booking.get("start");
+        Path<LocalDateTime> end = booking.get("end");
+        Path<Long> bookingId = booking.get("id");
+        LocalDateTime now = LocalDateTime.now();
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(builder.equal(userId.apply(booking, item), id));
+        switch (state) {
+            case "ALL":
+                break;
+            case "CURRENT":
+                predicates.add(builder.lessThan(start, now));
+                predicates.add(builder.greaterThan(end, now));
+                break;
+            case "PAST":
+                predicates.add(builder.lessThan(end, now));
+                break;
+            case "FUTURE":
+                predicates.add(builder.greaterThan(start, now));
+                break;
+            case "WAITING":
+                predicates.add(builder.equal(booking.get("status"), BookingStatus.WAITING));
+                break;
+            case "REJECTED":
+                predicates.add(builder.equal(booking.get("status"), BookingStatus.REJECTED));
+                break;
+            default:
+                predicates.add(builder.disjunction());
+        }
+        if (cursor != null) {
+            predicates.add(builder.or(builder.lessThan(start, cursor.getStart()),
+                    builder.and(builder.equal(start, cursor.getStart()), builder.lessThan(bookingId, cursor.getId()))));
+        }
+        query.select(builder.construct(BookingDto.class, bookingId, start, end, booking.get("status"),
+                        booking.get("booker").get("id"), item.get("id"), item.get("name")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(builder.desc(start), builder.desc(bookingId));
+        List<BookingDto> bookings = entityManager.createQuery(query)
+                .setMaxResults(size + 1)
+                .getResultList();
+        boolean hasNext = bookings.size() > size;
+
+        return new SliceImpl<>(hasNext ? bookings.subList(0, size) : bookings, PageRequest.of(0, size), hasNext);
+    }
+}
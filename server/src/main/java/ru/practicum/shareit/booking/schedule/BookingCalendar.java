@@ -0,0 +1,220 @@
+package ru.practicum.shareit.booking.schedule;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.AvailabilityDto;
+import ru.practicum.shareit.booking.dto.BookingPeriod;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Busy periods of items, the same waiting and approved bookings that the booking schedule holds. The periods
+ * of an item are kept as one sorted array of epoch seconds, start and end of each booking in turn, loaded on
+ * the first request and then changed by the booking service as bookings are made and rejected, so a calendar
+ * is answered without a query. Start times are rounded down and end times up to whole seconds.
+ * <p>
+ * Periods of an item do not overlap, the booking schedule guarantees it, so the array is sorted by the ends
+ * as well and a period is found by binary search. Arrays are never changed in place, an update replaces them.
+ */
+@Component
+public class BookingCalendar {
+    private static final List<BookingStatus> BUSY = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    private final BookingRepository bookingRepository;
+
+    private final Cache<Long, long[]> calendars;
+
+    public BookingCalendar(BookingRepository bookingRepository,
+                           @Value("${shareit.cache.maximum-size:10000}") long maximumSize,
+                           MeterRegistry meterRegistry) {
+        this.bookingRepository = bookingRepository;
+        this.calendars = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, calendars, "calendars");
+    }
+
+    /**
+     * Splits the period into consecutive free and busy periods, adjacent bookings make one busy period.
+     */
+    public List<AvailabilityDto> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        long[] periods = calendars.get(itemId, this::load);
+        long fromSecond = floor(from);
+        long toSecond = ceil(to);
+        List<AvailabilityDto> availability = new ArrayList<>();
+        long free = fromSecond;
+        int i = firstEndingAfter(periods, fromSecond);
+        while (i < periods.length && periods[i] < toSecond) {
+            long start = Math.max(periods[i], fromSecond);
+            long end = Math.min(periods[i + 1], toSecond);
+            for (i += 2; i < periods.length && periods[i] <= end; i += 2) {
+                end = Math.min(Math.max(end, periods[i + 1]), toSecond);
+            }
+            if (free < start) {
+                availability.add(toAvailabilityDto(free, start, true));
+            }
+            availability.add(toAvailabilityDto(start, end, false));
+            free = end;
+        }
+        if (free < toSecond) {
+            availability.add(toAvailabilityDto(free, toSecond, true));
+        }
+
+        return availability;
+    }
+
+    /**
+     * Adds the period of a new booking once the transaction commits.
+     */
+    public void add(Booking booking) {
+        long start = floor(booking.getStart());
+        long end = ceil(booking.getEnd());
+        if (start < end) {
+            afterCommit(booking.getItem().getId(), periods -> insert(periods, start, end));
+        }
+    }
+
+    /**
+     * Removes the period of a rejected booking once the transaction commits.
+     */
+    public void remove(Booking booking) {
+        long start = floor(booking.getStart());
+        long end = ceil(booking.getEnd());
+        afterCommit(booking.getItem().getId(), periods -> delete(periods, start, end));
+    }
+
+    /**
+     * Drops the calendar of the item at once and again when the transaction completes, for changes that
+     * remove bookings without naming them.
+     */
+    public void evict(Long itemId) {
+        evict(() -> calendars.invalidate(itemId));
+    }
+
+    public void evictAll() {
+        evict(calendars::invalidateAll);
+    }
+
+    private long[] load(Long itemId) {
+        List<BookingPeriod> bookings = bookingRepository.findAllByItemIdAndStatusInOrderByStartAsc(itemId, BUSY);
+        long[] periods = new long[bookings.size() * 2];
+        int length = 0;
+        for (BookingPeriod booking : bookings) {
+            long start = floor(booking.getStart());
+            long end = ceil(booking.getEnd());
+            if (start < end) {
+                periods[length++] = start;
+                periods[length++] = end;
+            }
+        }
+
+        return length == periods.length ? periods : Arrays.copyOf(periods, length);
+    }
+
+    /**
+     * Changes the cached calendar of the item, if there is one. Caffeine runs the change after a load of the
+     * same item that is in progress, so a calendar read before the commit still gets the change. The booking
+     * may already be in such a calendar, which is why both changes do nothing when it is.
+     */
+    private void afterCommit(Long itemId, UnaryOperator<long[]> change) {
+        Runnable action = () -> calendars.asMap().computeIfPresent(itemId, (id, periods) -> change.apply(periods));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static void evict(Runnable action) {
+        action.run();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+
+    private static long[] insert(long[] periods, long start, long end) {
+        int i = firstEndingAfter(periods, start);
+        if (i < periods.length && periods[i] == start && periods[i + 1] == end) {
+            return periods;
+        }
+        long[] inserted = new long[periods.length + 2];
+        System.arraycopy(periods, 0, inserted, 0, i);
+        inserted[i] = start;
+        inserted[i + 1] = end;
+        System.arraycopy(periods, i, inserted, i + 2, periods.length - i);
+
+        return inserted;
+    }
+
+    private static long[] delete(long[] periods, long start, long end) {
+        int i = firstEndingAfter(periods, start);
+        if (i == periods.length || periods[i] != start || periods[i + 1] != end) {
+            return periods;
+        }
+        long[] deleted = new long[periods.length - 2];
+        System.arraycopy(periods, 0, deleted, 0, i);
+        System.arraycopy(periods, i + 2, deleted, i, periods.length - i - 2);
+
+        return deleted;
+    }
+
+    /**
+     * Index of the start of the first period ending after the second, or the length of the array.
+     */
+    private static int firstEndingAfter(long[] periods, long second) {
+        int low = 0;
+        int high = periods.length / 2;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (periods[middle * 2 + 1] <= second) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low * 2;
+    }
+
+    private static long floor(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static long ceil(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) + (dateTime.getNano() > 0 ? 1 : 0);
+    }
+
+    private static AvailabilityDto toAvailabilityDto(long start, long end, boolean available) {
+        return AvailabilityDto.builder()
+                .start(LocalDateTime.ofEpochSecond(start, 0, ZoneOffset.UTC))
+                .end(LocalDateTime.ofEpochSecond(end, 0, ZoneOffset.UTC))
+                .available(available)
+                .build();
+    }
+}
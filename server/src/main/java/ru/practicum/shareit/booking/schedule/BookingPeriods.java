@@ -0,0 +1,77 @@
+package ru.practicum.shareit.booking.schedule;
+
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Non-overlapping booking periods of each item in a tree ordered by start. A new period can only overlap
+ * the last period that starts before it or the first one that starts after it, so a check takes O(log n)
+ * for an item with n bookings. An empty period takes nothing and is not kept. Not thread-safe.
+ */
+class BookingPeriods {
+    private final Map<Long, TreeMap<LocalDateTime, Period>> items = new HashMap<>();
+
+    /**
+     * Adds the period of the booking unless it overlaps a period already added for the item.
+     *
+     * @return false if the period overlaps
+     */
+    boolean add(Booking booking) {
+        LocalDateTime start = booking.getStart();
+        LocalDateTime end = booking.getEnd();
+        if (!start.isBefore(end)) {
+            return true;
+        }
+        TreeMap<LocalDateTime, Period> periods = items.computeIfAbsent(booking.getItem().getId(),
+                id -> new TreeMap<>());
+        Map.Entry<LocalDateTime, Period> before = periods.floorEntry(start);
+        if (before != null && before.getValue().end.isAfter(start)) {
+            return false;
+        }
+        Map.Entry<LocalDateTime, Period> after = periods.higherEntry(start);
+        if (after != null && after.getKey().isBefore(end)) {
+            return false;
+        }
+        periods.put(start, new Period(end, booking.getBooker().getId()));
+
+        return true;
+    }
+
+    void remove(Booking booking) {
+        TreeMap<LocalDateTime, Period> periods = items.get(booking.getItem().getId());
+        if (periods == null) {
+            return;
+        }
+        Period period = periods.get(booking.getStart());
+        if (period != null && period.end.equals(booking.getEnd())) {
+            periods.remove(booking.getStart());
+        }
+        if (periods.isEmpty()) {
+            items.remove(booking.getItem().getId());
+        }
+    }
+
+    void removeAllByItemId(Long itemId) {
+        items.remove(itemId);
+    }
+
+    void removeAllByBookerId(Long bookerId) {
+        items.values().forEach(periods -> periods.values().removeIf(period -> period.bookerId.equals(bookerId)));
+        items.values().removeIf(TreeMap::isEmpty);
+    }
+
+    private static class Period {
+        private final LocalDateTime end;
+
+        private final Long bookerId;
+
+        private Period(LocalDateTime end, Long bookerId) {
+            this.end = end;
+            this.bookerId = bookerId;
+        }
+    }
+}
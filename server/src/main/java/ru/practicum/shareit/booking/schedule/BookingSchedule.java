@@ -0,0 +1,43 @@
+package ru.practicum.shareit.booking.schedule;
+
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.util.Collection;
+
+/**
+ * Periods for which items are taken by waiting and approved bookings. The implementation is chosen by the
+ * {@code shareit.booking.schedule} property. Periods are half-open, so a booking may start exactly when
+ * the previous one ends.
+ */
+public interface BookingSchedule {
+    /**
+     * Checks that the booking does not overlap a waiting or approved booking of the same item, including
+     * the bookings reserved earlier in the current transaction, and holds its period until the transaction
+     * completes. The period of a rolled back booking is free again.
+     *
+     * @throws ru.practicum.shareit.exception.ConflictException if the period is taken
+     */
+    void reserve(Booking booking);
+
+    /**
+     * Called before reserving periods of several items in one transaction, so that implementations that lock
+     * items take the locks in the same order in every transaction.
+     */
+    default void lock(Collection<Long> itemIds) {
+    }
+
+    /**
+     * Frees the period of a rejected or canceled booking once the transaction commits.
+     */
+    default void release(Booking booking) {
+    }
+
+    default void releaseAllByItemId(Long itemId) {
+    }
+
+    default void releaseAllByItemIds(Collection<Long> itemIds) {
+    }
+
+    default void releaseAllByBookerId(Long bookerId) {
+    }
+}
@@ -0,0 +1,97 @@
+package ru.practicum.shareit.booking.schedule;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.ConflictException;
+
+import javax.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Schedule for databases without exclusion constraints, such as H2. The periods of waiting and approved
+ * bookings are kept in memory in a tree per item, filled from the database on startup. A reservation takes
+ * the period at once, so concurrent requests for the same item cannot both get it.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.booking.schedule", havingValue = "memory")
+public class InMemoryBookingSchedule implements BookingSchedule {
+    private final BookingRepository bookingRepository;
+
+    private final BookingPeriods periods = new BookingPeriods();
+
+    public InMemoryBookingSchedule(BookingRepository bookingRepository) {
+        this.bookingRepository = bookingRepository;
+    }
+
+    @PostConstruct
+    void load() {
+        bookingRepository.findAllByStatusIn(List.of(BookingStatus.WAITING, BookingStatus.APPROVED))
+                .forEach(periods::add);
+    }
+
+    @Override
+    public void reserve(Booking booking) {
+        synchronized (periods) {
+            if (!periods.add(booking)) {
+                throw new ConflictException("Невозможно создать бронирование - " +
+                        "вещь с id " + booking.getItem().getId() + " уже забронирована на это время");
+            }
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        update(bookingPeriods -> bookingPeriods.remove(booking));
+                    }
+                }
+            });
+        }
+    }
+
+    @Override
+    public void release(Booking booking) {
+        afterCommit(bookingPeriods -> bookingPeriods.remove(booking));
+    }
+
+    @Override
+    public void releaseAllByItemId(Long itemId) {
+        afterCommit(bookingPeriods -> bookingPeriods.removeAllByItemId(itemId));
+    }
+
+    @Override
+    public void releaseAllByItemIds(Collection<Long> itemIds) {
+        afterCommit(bookingPeriods -> itemIds.forEach(bookingPeriods::removeAllByItemId));
+    }
+
+    @Override
+    public void releaseAllByBookerId(Long bookerId) {
+        afterCommit(bookingPeriods -> bookingPeriods.removeAllByBookerId(bookerId));
+    }
+
+    private void update(Consumer<BookingPeriods> action) {
+        synchronized (periods) {
+            action.accept(periods);
+        }
+    }
+
+    private void afterCommit(Consumer<BookingPeriods> action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update(action);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update(action);
+            }
+        });
+    }
+}
@@ -0,0 +1,118 @@
+package ru.practicum.shareit.booking.schedule;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.exception.ConflictException;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process locks of items, held by a transaction from the first reservation for an item until it completes,
+ * so that bookings of one item are checked and written one transaction at a time instead of failing on the
+ * database constraint. Every item has a lock of its own, created on first use and dropped when no transaction
+ * holds or waits for it, so transactions booking different items never wait for each other. The locks only
+ * cover this process, the database constraint still protects bookings made by other nodes.
+ * <p>
+ * A transaction waits at most for the configured timeout and then gets a conflict, which also ends a wait
+ * between two transactions locking the same items in a different order.
+ */
+@Component
+public class ItemLocks {
+    private final Map<Long, ItemLock> locks = new ConcurrentHashMap<>();
+
+    private final Duration timeout;
+
+    public ItemLocks(@Value("${shareit.booking.lock-timeout:5s}") Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Locks the items in ascending order of ids.
+     */
+    public void lock(Collection<Long> itemIds) {
+        itemIds.stream()
+                .distinct()
+                .sorted()
+                .forEach(this::lock);
+    }
+
+    /**
+     * Locks the item until the transaction completes, does nothing outside of a transaction or if the
+     * transaction already holds the lock.
+     *
+     * @throws ConflictException if the lock is not acquired within the timeout
+     */
+    public void lock(Long itemId) {
+        Set<Long> held = held();
+        if (held == null || held.contains(itemId)) {
+            return;
+        }
+        ItemLock lock = locks.compute(itemId, (id, itemLock) -> {
+            ItemLock result = itemLock != null ? itemLock : new ItemLock();
+            result.users++;
+            return result;
+        });
+        boolean locked = false;
+        try {
+            locked = lock.lock.tryLock(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!locked) {
+            leave(itemId);
+            throw new ConflictException("Невозможно создать бронирование - " +
+                    "вещь с id " + itemId + " бронируется другим запросом");
+        }
+        held.add(itemId);
+    }
+
+    private void unlock(Long itemId) {
+        locks.get(itemId).lock.unlock();
+        leave(itemId);
+    }
+
+    private void leave(Long itemId) {
+        locks.computeIfPresent(itemId, (id, itemLock) -> --itemLock.users == 0 ? null : itemLock);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Long> held() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Set<Long> held = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (held != null) {
+            return held;
+        }
+        Set<Long> acquired = new HashSet<>();
+        TransactionSynchronizationManager.bindResource(this, acquired);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResource(ItemLocks.this);
+                acquired.forEach(ItemLocks.this::unlock);
+            }
+        });
+
+        return acquired;
+    }
+
+    /**
+     * Lock of an item with the number of transactions holding or waiting for it, changed only inside
+     * the map operations for the item.
+     */
+    private static class ItemLock {
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private int users;
+    }
+}
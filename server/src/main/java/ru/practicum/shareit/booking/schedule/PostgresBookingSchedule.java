@@ -0,0 +1,68 @@
+package ru.practicum.shareit.booking.schedule;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.ConflictException;
+
+import java.util.Collection;
+
+/**
+ * Schedule backed by the ex_bookings_item_period exclusion constraint from schema-postgresql.sql. A check is
+ * answered from the GiST index of the constraint, bookings reserved earlier in the same transaction and not
+ * written yet are checked in memory. Of two concurrent transactions reserving the same period the database
+ * lets only one insert its booking.
+ * <p>
+ * Within this process the item is locked before the check until the transaction completes, so concurrent
+ * bookings of one item wait for each other and get a conflict from the check instead of a failed insert,
+ * while bookings of other items go on in parallel.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.booking.schedule", havingValue = "postgres", matchIfMissing = true)
+public class PostgresBookingSchedule implements BookingSchedule {
+    private final BookingRepository bookingRepository;
+
+    private final ItemLocks itemLocks;
+
+    public PostgresBookingSchedule(BookingRepository bookingRepository, ItemLocks itemLocks) {
+        this.bookingRepository = bookingRepository;
+        this.itemLocks = itemLocks;
+    }
+
+    @Override
+    public void reserve(Booking booking) {
+        itemLocks.lock(booking.getItem().getId());
+        if (bookingRepository.existsOverlapping(booking.getItem().getId(), booking.getStart(), booking.getEnd())
+                || !pending().add(booking)) {
+            throw new ConflictException("Невозможно создать бронирование - " +
+                    "вещь с id " + booking.getItem().getId() + " уже забронирована на это время");
+        }
+    }
+
+    @Override
+    public void lock(Collection<Long> itemIds) {
+        itemLocks.lock(itemIds);
+    }
+
+    private BookingPeriods pending() {
+        BookingPeriods periods = (BookingPeriods) TransactionSynchronizationManager.getResource(this);
+        if (periods != null) {
+            return periods;
+        }
+        periods = new BookingPeriods();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.bindResource(this, periods);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(PostgresBookingSchedule.this);
+                }
+            });
+        }
+
+        return periods;
+    }
+}
@@ -1,6 +1,8 @@
 package ru.practicum.shareit.booking.service;
 
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.BookingResultDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 
 import java.util.List;
@@ -8,11 +10,21 @@ import java.util.List;
 public interface BookingService {
     BookingDto create(BookingShortDto bookingShortDto, Long userId);
 
+    List<BookingResultDto> createAll(List<BookingShortDto> bookingShortDtos, Long userId);
+
     BookingDto approve(Long bookingId, Long userId, Boolean approved);
 
+    List<BookingResultDto> approveAll(List<Long> bookingIds, Long userId, Boolean approved);
+
     List<BookingDto> getAllByOwner(Long userId, String state, int from, int size);
 
     List<BookingDto> getAllByUser(Long userId, String state, int from, int size);
 
+    BookingPageDto getAllByOwnerAfter(Long userId, String state, String cursor, int size);
+
+    BookingPageDto getAllByUserAfter(Long userId, String state, String cursor, int size);
+
     BookingDto getById(Long itemId, Long userId);
+
+    List<BookingDto> getAllById(List<Long> ids, Long userId);
 }
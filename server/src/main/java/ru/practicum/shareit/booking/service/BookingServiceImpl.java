@@ -1,108 +1,193 @@
 package ru.practicum.shareit.booking.service;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingCursor;
 import ru.practicum.shareit.booking.BookingStatus;
-import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.BookingResultDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.dto.BookingVersionDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.schedule.BookingCalendar;
+import ru.practicum.shareit.booking.schedule.BookingSchedule;
+import ru.practicum.shareit.cache.EntityCache;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.booking.BookingMapper.toBooking;
 import static ru.practicum.shareit.booking.BookingMapper.toBookingDto;
+import static ru.practicum.shareit.booking.BookingMapper.toBookingPageDto;
+import static ru.practicum.shareit.booking.BookingMapper.toBookingResultDto;
 
 @Service
 public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
 
-    private final UserRepository userRepository;
-
     private final ItemRepository itemRepository;
 
+    private final EntityCache entityCache;
+
+    private final BookingSchedule bookingSchedule;
+
+    private final BookingCalendar bookingCalendar;
+
     private final Sort sort = Sort.by(Sort.Direction.DESC, "start");
 
-    public BookingServiceImpl(BookingRepository bookingRepository, UserRepository userRepository,
-                              ItemRepository itemRepository) {
+    public BookingServiceImpl(BookingRepository bookingRepository, ItemRepository itemRepository,
+                              EntityCache entityCache, BookingSchedule bookingSchedule,
+                              BookingCalendar bookingCalendar) {
         this.bookingRepository = bookingRepository;
-        this.userRepository = userRepository;
         this.itemRepository = itemRepository;
+        this.entityCache = entityCache;
+        this.bookingSchedule = bookingSchedule;
+        this.bookingCalendar = bookingCalendar;
     }
 
     @Transactional
     @Override
     public BookingDto create(BookingShortDto bookingShortDto, Long userId) {
-        User user = userRepository.findById(userId)
+        User user = entityCache.findUser(userId)
                 .orElseThrow(() -> new NotFoundException("Невозможно создать бронирование - " +
                         "не найден пользователь с id " + userId));
-        Item item = itemRepository.findById(bookingShortDto.getItemId())
-                .orElseThrow(() -> new NotFoundException("Невозможно создать бронирование - " +
-                        "не найдена вещь с id " + bookingShortDto.getItemId()));
-        if (item.getOwner().getId().equals(userId)) {
-            throw new NotFoundException("Невозможно создать бронирование - " +
-                    "пользователь не может забронировать принадлежащую ему вещь");
-        }
-        if (!item.getAvailable()) {
-            throw new BadRequestException("Невозможно создать бронирование - " +
-                    "данная вещь недоступна");
-        }
-        Booking booking = toBooking(bookingShortDto);
-        if (booking.getEnd().isBefore(booking.getStart())) {
-            throw new BadRequestException("Невозможно создать бронирование - " +
-                    "дата окончания бронирования не может быть раньше даты начала бронирования");
-        }
-        booking.setBooker(user);
-        booking.setItem(item);
-        booking.setStatus(BookingStatus.WAITING);
+        Item item = entityCache.findItem(bookingShortDto.getItemId()).orElse(null);
+        Booking booking = newBooking(bookingShortDto, user, item);
+        bookingSchedule.reserve(booking);
         bookingRepository.save(booking);
+        flush();
+        bookingCalendar.add(booking);
 
         return toBookingDto(booking);
     }
 
+    /**
+     * Validates every entry as {@link #create} does and saves the valid ones together, items of all entries are
+     * loaded with one query. Results follow the order of the entries.
+     */
+    @Transactional
+    @Override
+    public List<BookingResultDto> createAll(List<BookingShortDto> bookingShortDtos, Long userId) {
+        User user = entityCache.findUser(userId)
+                .orElseThrow(() -> new NotFoundException("Невозможно создать бронирование - " +
+                        "не найден пользователь с id " + userId));
+        Map<Long, Item> items = itemRepository.findAllById(bookingShortDtos.stream()
+                        .map(BookingShortDto::getItemId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        List<Booking> bookings = new ArrayList<>();
+        List<BookingResultDto> results = new ArrayList<>();
+        bookingSchedule.lock(items.keySet());
+        for (BookingShortDto bookingShortDto : bookingShortDtos) {
+            try {
+                Booking booking = newBooking(bookingShortDto, user, items.get(bookingShortDto.getItemId()));
+                bookingSchedule.reserve(booking);
+                bookings.add(booking);
+                results.add(null);
+            } catch (NotFoundException | BadRequestException | ConflictException e) {
+                results.add(toBookingResultDto(e));
+            }
+        }
+        bookingRepository.saveAll(bookings);
+        flush();
+        bookings.forEach(bookingCalendar::add);
+        Iterator<Booking> saved = bookings.iterator();
+        results.replaceAll(result -> result != null ? result : toBookingResultDto(toBookingDto(saved.next())));
+
+        return results;
+    }
+
+    /**
+     * Reads the booking without loading the entity and changes its status with an update conditional on the
+     * version read, so of two concurrent requests only one changes the booking and the other gets a conflict.
+     */
     @Transactional
     @Override
     public BookingDto approve(Long bookingId, Long userId, Boolean approved) {
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new NotFoundException("Невозможно подтвердить бронирование - " +
-                        "не найдено бронирование с id " + bookingId));
-        if (!userId.equals(booking.getItem().getOwner().getId())) {
-            throw new NotFoundException("Невозможно подтвердить бронирование - " +
-                    "не найден запрос на бронирование с id " + bookingId + " у пользователя с id" + userId);
+        BookingVersionDto current = bookingRepository.findVersionById(bookingId).orElse(null);
+        BookingDto bookingDto = current == null ? null : current.getBooking();
+        checkApproval(bookingId, userId, current == null ? null : current.getOwnerId(),
+                bookingDto == null ? null : bookingDto.getStatus());
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        if (bookingRepository.updateWaitingStatus(bookingId, current.getVersion(), status) == 0) {
+            throw new ConflictException("Невозможно подтвердить бронирование - " +
+                    "бронирование с id " + bookingId + " одновременно изменено другим запросом");
         }
-        if (!booking.getStatus().equals(BookingStatus.WAITING)) {
-            throw new BadRequestException("Невозможно подтвердить бронирование - " +
-                    "бронирование уже подтверждено или отклонено");
+        bookingDto.setStatus(status);
+        if (!approved) {
+            Booking booking = Booking.builder()
+                    .id(bookingDto.getId())
+                    .start(bookingDto.getStart())
+                    .end(bookingDto.getEnd())
+                    .item(Item.builder().id(bookingDto.getItem().getId()).build())
+                    .booker(User.builder().id(bookingDto.getBooker().getId()).build())
+                    .status(status)
+                    .build();
+            bookingSchedule.release(booking);
+            bookingCalendar.remove(booking);
         }
-        if (approved) {
-            booking.setStatus(BookingStatus.APPROVED);
-        } else {
-            booking.setStatus(BookingStatus.REJECTED);
+
+        return bookingDto;
+    }
+
+    /**
+     * Validates every booking as {@link #approve} does, bookings are loaded with one query and the status changes
+     * are flushed together, each update conditional on the version of the booking. If another request has changed
+     * one of the bookings in the meantime, none of the changes is made. Results follow the order of the ids.
+     */
+    @Transactional
+    @Override
+    public List<BookingResultDto> approveAll(List<Long> bookingIds, Long userId, Boolean approved) {
+        Map<Long, Booking> bookings = bookingRepository.findAllByIdIn(bookingIds)
+                .stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        List<BookingResultDto> results = new ArrayList<>();
+        for (Long bookingId : bookingIds) {
+            Booking booking = bookings.get(bookingId);
+            try {
+                setApproval(booking, bookingId, userId, approved);
+                results.add(toBookingResultDto(toBookingDto(booking)));
+            } catch (NotFoundException | BadRequestException e) {
+                results.add(toBookingResultDto(e));
+            }
+        }
+        try {
+            bookingRepository.flush();
+        } catch (OptimisticLockingFailureException e) {
+            throw new ConflictException("Невозможно подтвердить бронирования - " +
+                    "одно из бронирований одновременно изменено другим запросом");
         }
-        bookingRepository.save(booking);
 
-        return toBookingDto(booking);
+        return results;
     }
 
     @Transactional(readOnly = true)
     @Override
     public List<BookingDto> getAllByOwner(Long userId, String state, int from, int size) {
-        User user = userRepository.findById(userId)
+        User user = entityCache.findUser(userId)
                 .orElseThrow(() -> new NotFoundException("Невозможно найти бронирования - " +
                         "не существует пользователя с id " + userId));
-        List<Booking> bookingDtoList = new ArrayList<>();
+        List<BookingDto> bookingDtoList = new ArrayList<>();
         PageRequest pageRequest = PageRequest.of(from / size, size, sort);
         switch (state) {
             case "ALL":
@@ -131,19 +216,16 @@ public class BookingServiceImpl implements BookingService {
                 break;
         }
 
-        return bookingDtoList
-                .stream()
-                .map(BookingMapper::toBookingDto)
-                .collect(Collectors.toList());
+        return bookingDtoList;
     }
 
     @Transactional(readOnly = true)
     @Override
     public List<BookingDto> getAllByUser(Long userId, String state, int from, int size) {
-        User user = userRepository.findById(userId)
+        User user = entityCache.findUser(userId)
                 .orElseThrow(() -> new NotFoundException("Невозможно найти бронирования - " +
                         "не найден пользователь с id " + userId));
-        List<Booking> bookingDtoList = new ArrayList<>();
+        List<BookingDto> bookingDtoList = new ArrayList<>();
         PageRequest pageRequest = PageRequest.of(from / size, size, sort);
         switch (state) {
             case "ALL":
@@ -172,10 +254,31 @@ public class BookingServiceImpl implements BookingService {
                 break;
         }
 
-        return bookingDtoList
-                .stream()
-                .map(BookingMapper::toBookingDto)
-                .collect(Collectors.toList());
+        return bookingDtoList;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public BookingPageDto getAllByOwnerAfter(Long userId, String state, String cursor, int size) {
+        if (!entityCache.userExists(userId)) {
+            throw new NotFoundException("Невозможно найти бронирования - " +
+                    "не существует пользователя с id " + userId);
+        }
+
+        return toBookingPageDto(bookingRepository.findAllByItemOwnerIdAfter(userId, state,
+                BookingCursor.decode(cursor), size));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public BookingPageDto getAllByUserAfter(Long userId, String state, String cursor, int size) {
+        if (!entityCache.userExists(userId)) {
+            throw new NotFoundException("Невозможно найти бронирования - " +
+                    "не найден пользователь с id " + userId);
+        }
+
+        return toBookingPageDto(bookingRepository.findAllByBookerIdAfter(userId, state,
+                BookingCursor.decode(cursor), size));
     }
 
     @Transactional(readOnly = true)
@@ -190,4 +293,90 @@ public class BookingServiceImpl implements BookingService {
 
         return toBookingDto(booking);
     }
+
+    /**
+     * Bookings in the order of the requested ids. Unknown ids and bookings the user may not see, being neither
+     * the booker nor the item owner, are skipped.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public List<BookingDto> getAllById(List<Long> ids, Long userId) {
+        Map<Long, BookingDto> bookings = bookingRepository.findAllByIdInAndBookerIdOrItemOwnerId(ids, userId)
+                .stream()
+                .collect(Collectors.toMap(BookingDto::getId, Function.identity()));
+
+        return ids.stream()
+                .distinct()
+                .map(bookings::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private Booking newBooking(BookingShortDto bookingShortDto, User user, Item item) {
+        if (item == null) {
+            throw new NotFoundException("Невозможно создать бронирование - " +
+                    "не найдена вещь с id " + bookingShortDto.getItemId());
+        }
+        if (item.getOwner().getId().equals(user.getId())) {
+            throw new NotFoundException("Невозможно создать бронирование - " +
+                    "пользователь не может забронировать принадлежащую ему вещь");
+        }
+        if (!item.getAvailable()) {
+            throw new BadRequestException("Невозможно создать бронирование - " +
+                    "данная вещь недоступна");
+        }
+        Booking booking = toBooking(bookingShortDto);
+        if (booking.getEnd().isBefore(booking.getStart())) {
+            throw new BadRequestException("Невозможно создать бронирование - " +
+                    "дата окончания бронирования не может быть раньше даты начала бронирования");
+        }
+        booking.setBooker(user);
+        booking.setItem(item);
+        booking.setStatus(BookingStatus.WAITING);
+
+        return booking;
+    }
+
+    /**
+     * Checks that the booking exists, belongs to an item of the user and is still waiting for approval.
+     * Owner and status are null for a booking that was not found.
+     */
+    private void checkApproval(Long bookingId, Long userId, Long ownerId, BookingStatus status) {
+        if (status == null) {
+            throw new NotFoundException("Невозможно подтвердить бронирование - " +
+                    "не найдено бронирование с id " + bookingId);
+        }
+        if (!userId.equals(ownerId)) {
+            throw new NotFoundException("Невозможно подтвердить бронирование - " +
+                    "не найден запрос на бронирование с id " + bookingId + " у пользователя с id" + userId);
+        }
+        if (!status.equals(BookingStatus.WAITING)) {
+            throw new BadRequestException("Невозможно подтвердить бронирование - " +
+                    "бронирование уже подтверждено или отклонено");
+        }
+    }
+
+    /**
+     * Writes new bookings at once, so that a booking that another transaction has just taken the same period for
+     * is reported as a conflict and not as a failed commit.
+     */
+    private void flush() {
+        try {
+            bookingRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw new ConflictException("Невозможно создать бронирование - вещь уже забронирована на это время");
+        }
+    }
+
+    private void setApproval(Booking booking, Long bookingId, Long userId, Boolean approved) {
+        checkApproval(bookingId, userId, booking == null ? null : booking.getItem().getOwner().getId(),
+                booking == null ? null : booking.getStatus());
+        if (approved) {
+            booking.setStatus(BookingStatus.APPROVED);
+        } else {
+            booking.setStatus(BookingStatus.REJECTED);
+            bookingSchedule.release(booking);
+            bookingCalendar.remove(booking);
+        }
+    }
 }
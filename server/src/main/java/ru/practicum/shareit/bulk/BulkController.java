@@ -0,0 +1,43 @@
+package ru.practicum.shareit.bulk;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.bulk.dto.BulkImportDto;
+import ru.practicum.shareit.bulk.service.BulkService;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping(path = "/bulk")
+public class BulkController {
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final BulkService bulkService;
+
+    public BulkController(BulkService bulkService) {
+        this.bulkService = bulkService;
+    }
+
+    @PostMapping(path = "/{entity}", consumes = NDJSON)
+    public BulkImportDto importRows(@PathVariable String entity,
+                                    @RequestParam(required = false) String importId,
+                                    InputStream body) {
+        return bulkService.importRows(BulkEntity.of(entity), importId, body);
+    }
+
+    @GetMapping(path = "/{entity}", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportRows(@PathVariable String entity) {
+        BulkEntity bulkEntity = BulkEntity.of(entity);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(output -> bulkService.exportRows(bulkEntity, output));
+    }
+
+    @GetMapping("/imports/{importId}")
+    public BulkImportDto getImport(@PathVariable String importId) {
+        return bulkService.getImport(importId);
+    }
+}
@@ -0,0 +1,238 @@
+package ru.practicum.shareit.bulk;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.exception.BadRequestException;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Tables that can be imported and exported in bulk. A row is a JSON object with the fields listed here,
+ * export writes the same fields, so an exported file can be imported as is. Rows keep their ids,
+ * references to other tables are plain ids as well.
+ */
+public enum BulkEntity {
+    USERS("users", "users_seq", List.of(
+            Column.id(),
+            Column.text("name", "name", 50),
+            Column.text("email", "email", 50))),
+
+    ITEMS("items", "items_seq", List.of(
+            Column.id(),
+            Column.text("name", "name", 50),
+            Column.text("description", "description", 1000),
+            new Column("available", "is_available", Type.BOOLEAN, true),
+            new Column("ownerId", "id_owner", Type.ID, true),
+            new Column("requestId", "request_id", Type.ID, false))),
+
+    BOOKINGS("bookings", "bookings_seq", List.of(
+            Column.id(),
+            new Column("start", "start_date", Type.TIMESTAMP, true),
+            new Column("end", "end_date", Type.TIMESTAMP, true),
+            new Column("itemId", "item_id", Type.ID, true),
+            new Column("bookerId", "booker_id", Type.ID, true),
+            new Column("status", "status", Type.STATUS, true))) {
+        @Override
+        void validate(Object[] values) {
+            Timestamp start = (Timestamp) values[indexOf("start")];
+            Timestamp end = (Timestamp) values[indexOf("end")];
+            if (end.before(start)) {
+                throw new BadRequestException("Дата окончания бронирования не может быть раньше даты начала бронирования");
+            }
+        }
+    };
+
+    private final String table;
+
+    private final String sequence;
+
+    private final List<Column> columns;
+
+    BulkEntity(String table, String sequence, List<Column> columns) {
+        this.table = table;
+        this.sequence = sequence;
+        this.columns = columns;
+    }
+
+    public static BulkEntity of(String table) {
+        return Arrays.stream(values())
+                .filter(entity -> entity.table.equals(table))
+                .findFirst()
+                .orElseThrow(() -> new BadRequestException("Неизвестный тип данных: " + table));
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public String getSequence() {
+        return sequence;
+    }
+
+    public String insertSql() {
+        return "insert into " + table + " (" + sqlColumns() + ") values ("
+                + columns.stream().map(column -> "?").collect(Collectors.joining(", ")) + ")";
+    }
+
+    public String selectSql() {
+        return "select " + sqlColumns() + " from " + table + " order by id";
+    }
+
+    public int indexOf(String field) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).field.equals(field)) {
+                return i;
+            }
+        }
+
+        throw new IllegalArgumentException(field);
+    }
+
+    /**
+     * Converts a JSON row to the statement parameters in column order. Throws BadRequestException
+     * naming the first field that is missing or invalid.
+     */
+    public Object[] parse(JsonNode row) {
+        if (!row.isObject()) {
+            throw new BadRequestException("Строка должна быть JSON-объектом");
+        }
+        Object[] values = new Object[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            values[i] = columns.get(i).parse(row.get(columns.get(i).field));
+        }
+        validate(values);
+
+        return values;
+    }
+
+    public Map<String, Object> read(ResultSet rs) throws SQLException {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (Column column : columns) {
+            row.put(column.field, column.read(rs));
+        }
+
+        return row;
+    }
+
+    void validate(Object[] values) {
+    }
+
+    private String sqlColumns() {
+        return columns.stream()
+                .map(column -> column.name)
+                .collect(Collectors.joining(", "));
+    }
+
+    private enum Type {
+        ID,
+
+        TEXT,
+
+        BOOLEAN,
+
+        TIMESTAMP,
+
+        STATUS
+    }
+
+    private static class Column {
+        private final String field;
+
+        private final String name;
+
+        private final Type type;
+
+        private final boolean required;
+
+        private final int maxLength;
+
+        Column(String field, String name, Type type, boolean required) {
+            this(field, name, type, required, 0);
+        }
+
+        Column(String field, String name, Type type, boolean required, int maxLength) {
+            this.field = field;
+            this.name = name;
+            this.type = type;
+            this.required = required;
+            this.maxLength = maxLength;
+        }
+
+        static Column id() {
+            return new Column("id", "id", Type.ID, true);
+        }
+
+        static Column text(String field, String name, int maxLength) {
+            return new Column(field, name, Type.TEXT, true, maxLength);
+        }
+
+        Object parse(JsonNode value) {
+            if (value == null || value.isNull()) {
+                if (required) {
+                    throw new BadRequestException("Не заполнено поле " + field);
+                }
+                return null;
+            }
+            switch (type) {
+                case ID:
+                    if (!value.isIntegralNumber() || !value.canConvertToLong() || value.longValue() <= 0) {
+                        throw new BadRequestException("Поле " + field + " должно быть положительным целым числом");
+                    }
+                    return value.longValue();
+                case TEXT:
+                    if (!value.isTextual() || value.textValue().isBlank()) {
+                        throw new BadRequestException("Поле " + field + " должно быть непустой строкой");
+                    }
+                    if (value.textValue().length() > maxLength) {
+                        throw new BadRequestException("Поле " + field + " длиннее " + maxLength + " символов");
+                    }
+                    return value.textValue();
+                case BOOLEAN:
+                    if (!value.isBoolean()) {
+                        throw new BadRequestException("Поле " + field + " должно быть true или false");
+                    }
+                    return value.booleanValue();
+                case TIMESTAMP:
+                    try {
+                        return Timestamp.valueOf(LocalDateTime.parse(value.asText()));
+                    } catch (DateTimeParseException e) {
+                        throw new BadRequestException("Поле " + field + " должно быть датой в формате ISO");
+                    }
+                default:
+                    try {
+                        return BookingStatus.valueOf(value.asText()).name();
+                    } catch (IllegalArgumentException e) {
+                        throw new BadRequestException("Неизвестный статус бронирования: " + value.asText());
+                    }
+            }
+        }
+
+        Object read(ResultSet rs) throws SQLException {
+            Object value;
+            switch (type) {
+                case ID:
+                    value = rs.getLong(name);
+                    break;
+                case BOOLEAN:
+                    value = rs.getBoolean(name);
+                    break;
+                case TIMESTAMP:
+                    Timestamp timestamp = rs.getTimestamp(name);
+                    return timestamp != null ? timestamp.toLocalDateTime() : null;
+                default:
+                    return rs.getString(name);
+            }
+
+            return rs.wasNull() ? null : value;
+        }
+    }
+}
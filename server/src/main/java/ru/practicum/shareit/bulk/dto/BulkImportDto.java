@@ -0,0 +1,28 @@
+package ru.practicum.shareit.bulk.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Progress of an import: lines of the file committed so far and how many of them were imported or rejected.
+ * Errors are those of the lines processed by the current request.
+ */
+@Getter
+@Setter
+@Builder
+public class BulkImportDto {
+    private String id;
+
+    private String entity;
+
+    private long lines;
+
+    private long imported;
+
+    private long failed;
+
+    private List<BulkErrorDto> errors;
+}
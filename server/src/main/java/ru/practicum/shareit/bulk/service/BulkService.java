@@ -0,0 +1,15 @@
+package ru.practicum.shareit.bulk.service;
+
+import ru.practicum.shareit.bulk.BulkEntity;
+import ru.practicum.shareit.bulk.dto.BulkImportDto;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface BulkService {
+    BulkImportDto importRows(BulkEntity entity, String importId, InputStream input);
+
+    BulkImportDto getImport(String importId);
+
+    void exportRows(BulkEntity entity, OutputStream output);
+}
@@ -0,0 +1,425 @@
+package ru.practicum.shareit.bulk.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.schedule.BookingCalendar;
+import ru.practicum.shareit.booking.schedule.BookingSchedule;
+import ru.practicum.shareit.bulk.BulkEntity;
+import ru.practicum.shareit.bulk.dto.BulkErrorDto;
+import ru.practicum.shareit.bulk.dto.BulkImportDto;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Imports NDJSON files in chunks of CHUNK_SIZE lines, so memory use does not depend on the size of the file.
+ * Every chunk is written with one JDBC batch in its own transaction together with the import checkpoint
+ * in bulk_imports. If the batch fails, its rows are retried one by one under savepoints to find the rejected
+ * ones; the JPA transaction manager cannot set savepoints, so the service runs its own JDBC one.
+ * An import posted again with the same id skips the lines that are already committed.
+ * <p>
+ * Export reads the table through a forward-only cursor and writes every row as soon as it is fetched.
+ */
+@Service
+public class BulkServiceImpl implements BulkService {
+    static final int CHUNK_SIZE = 500;
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final int MAX_ERRORS = 100;
+
+    private static final int MAX_IMPORT_ID_LENGTH = 100;
+
+    /**
+     * Must match the increment of the id sequences in schema.sql.
+     */
+    private static final int ID_ALLOCATION = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final JdbcTemplate cursorTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TransactionTemplate savepointTemplate;
+
+    private final TransactionTemplate readOnlyTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectWriter rowWriter;
+
+    private final ItemSearchEngine itemSearchEngine;
+
+    private final BookingSchedule bookingSchedule;
+
+    private final BookingCalendar bookingCalendar;
+
+    public BulkServiceImpl(DataSource dataSource, ObjectMapper objectMapper, ItemSearchEngine itemSearchEngine,
+                           BookingSchedule bookingSchedule, BookingCalendar bookingCalendar) {
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.cursorTemplate = new JdbcTemplate(dataSource);
+        this.cursorTemplate.setFetchSize(FETCH_SIZE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.savepointTemplate = new TransactionTemplate(transactionManager);
+        this.savepointTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.itemSearchEngine = itemSearchEngine;
+        this.bookingSchedule = bookingSchedule;
+        this.bookingCalendar = bookingCalendar;
+    }
+
+    @Override
+    public BulkImportDto importRows(BulkEntity entity, String importId, InputStream input) {
+        BulkImportDto progress = startImport(entity, importId != null ? importId : UUID.randomUUID().toString());
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        try {
+            for (long skipped = 0; skipped < progress.getLines(); skipped++) {
+                if (reader.readLine() == null) {
+                    return progress;
+                }
+            }
+            List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+            int lines = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines++;
+                if (!line.isBlank()) {
+                    chunk.add(parse(entity, progress.getLines() + lines, line));
+                }
+                if (lines == CHUNK_SIZE) {
+                    commit(entity, progress, chunk, lines);
+                    chunk.clear();
+                    lines = 0;
+                }
+            }
+            if (lines > 0) {
+                commit(entity, progress, chunk, lines);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return progress;
+    }
+
+    @Override
+    public BulkImportDto getImport(String importId) {
+        return findImport(importId)
+                .orElseThrow(() -> new NotFoundException("Не найден импорт с id: " + importId));
+    }
+
+    @Override
+    public void exportRows(BulkEntity entity, OutputStream output) {
+        readOnlyTemplate.executeWithoutResult(status -> {
+            try {
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(output);
+                generator.setRootValueSeparator(null);
+                RowCallbackHandler writeRow = rs -> {
+                    try {
+                        rowWriter.writeValue(generator, entity.read(rs));
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                };
+                cursorTemplate.query(entity.selectSql(), writeRow);
+                generator.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private BulkImportDto startImport(BulkEntity entity, String importId) {
+        if (importId.isBlank() || importId.length() > MAX_IMPORT_ID_LENGTH) {
+            throw new BadRequestException("Id импорта должен быть непустой строкой не длиннее "
+                    + MAX_IMPORT_ID_LENGTH + " символов");
+        }
+        Optional<BulkImportDto> started = findImport(importId);
+        if (started.isPresent()) {
+            if (!started.get().getEntity().equals(entity.getTable())) {
+                throw new BadRequestException("Импорт с id " + importId + " начат для данных "
+                        + started.get().getEntity());
+            }
+            return started.get();
+        }
+        try {
+            jdbcTemplate.update("insert into bulk_imports (id, entity, committed_lines, imported, failed, updated) " +
+                    "values (?, ?, 0, 0, 0, ?)", importId, entity.getTable(), Timestamp.valueOf(LocalDateTime.now()));
+        } catch (DuplicateKeyException e) {
+            throw new ConflictException("Импорт с id " + importId + " уже выполняется");
+        }
+
+        return BulkImportDto.builder()
+                .id(importId)
+                .entity(entity.getTable())
+                .errors(new ArrayList<>())
+                .build();
+    }
+
+    private Optional<BulkImportDto> findImport(String importId) {
+        return jdbcTemplate.query("select id, entity, committed_lines, imported, failed from bulk_imports " +
+                        "where id = ?", (rs, rowNum) -> BulkImportDto.builder()
+                        .id(rs.getString("id"))
+                        .entity(rs.getString("entity"))
+                        .lines(rs.getLong("committed_lines"))
+                        .imported(rs.getLong("imported"))
+                        .failed(rs.getLong("failed"))
+                        .errors(new ArrayList<>())
+                        .build(), importId)
+                .stream()
+                .findFirst();
+    }
+
+    private Row parse(BulkEntity entity, long line, String text) {
+        try {
+            return Row.valid(line, entity.parse(objectMapper.readTree(text)));
+        } catch (JsonProcessingException e) {
+            return Row.rejected(line, "Некорректный JSON: " + e.getOriginalMessage());
+        } catch (BadRequestException e) {
+            return Row.rejected(line, e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the valid rows of a chunk and moves the checkpoint past it in one transaction. The checkpoint
+     * is updated first and only if it is still where this request found it, so two requests resuming
+     * the same import cannot both write a chunk.
+     */
+    private void commit(BulkEntity entity, BulkImportDto progress, List<Row> rows, int lines) {
+        List<Row> valid = rows.stream()
+                .filter(Row::isValid)
+                .collect(Collectors.toList());
+        List<Row> imported = transactionTemplate.execute(status -> {
+            int updated = jdbcTemplate.update("update bulk_imports set committed_lines = ?, updated = ? " +
+                            "where id = ? and committed_lines = ?", progress.getLines() + lines,
+                    Timestamp.valueOf(LocalDateTime.now()), progress.getId(), progress.getLines());
+            if (updated == 0) {
+                throw new ConflictException("Импорт с id " + progress.getId() + " уже выполняется");
+            }
+            List<Row> accepted = reserveIds(entity, valid);
+            if (entity == BulkEntity.BOOKINGS) {
+                accepted = reserve(accepted);
+            }
+            List<Row> written = insert(entity, accepted);
+            if (entity == BulkEntity.BOOKINGS) {
+                for (Row row : accepted) {
+                    if (!takesPeriod(row)) {
+                        continue;
+                    }
+                    if (row.isValid()) {
+                        bookingCalendar.add(toBooking(row.values));
+                    } else {
+                        bookingSchedule.release(toBooking(row.values));
+                    }
+                }
+            }
+            jdbcTemplate.update("update bulk_imports set imported = imported + ?, failed = failed + ? where id = ?",
+                    written.size(), rows.size() - written.size(), progress.getId());
+            if (entity == BulkEntity.ITEMS) {
+                written.forEach(row -> itemSearchEngine.index(toItem(row.values)));
+            }
+
+            return written;
+        });
+
+        progress.setLines(progress.getLines() + lines);
+        progress.setImported(progress.getImported() + imported.size());
+        progress.setFailed(progress.getFailed() + rows.size() - imported.size());
+        rows.stream()
+                .filter(row -> !row.isValid())
+                .limit(MAX_ERRORS - progress.getErrors().size())
+                .forEach(row -> progress.getErrors().add(new BulkErrorDto(row.line, row.error)));
+    }
+
+    /**
+     * Takes the periods of waiting and approved bookings in the booking schedule, rows overlapping a booking
+     * of the same item are rejected. Returns the rows that were not rejected.
+     */
+    private List<Row> reserve(List<Row> rows) {
+        int itemId = BulkEntity.BOOKINGS.indexOf("itemId");
+        bookingSchedule.lock(rows.stream()
+                .map(row -> (Long) row.values[itemId])
+                .collect(Collectors.toList()));
+        List<Row> accepted = new ArrayList<>();
+        for (Row row : rows) {
+            if (takesPeriod(row)) {
+                try {
+                    bookingSchedule.reserve(toBooking(row.values));
+                } catch (ConflictException e) {
+                    row.reject(e.getMessage());
+                    continue;
+                }
+            }
+            accepted.add(row);
+        }
+
+        return accepted;
+    }
+
+    private static boolean takesPeriod(Row row) {
+        Object status = row.values[BulkEntity.BOOKINGS.indexOf("status")];
+
+        return BookingStatus.WAITING.name().equals(status) || BookingStatus.APPROVED.name().equals(status);
+    }
+
+    /**
+     * Writes the rows in one batch, or one by one if the batch fails so that only the failing rows are rejected.
+     * Returns the rows written.
+     */
+    private List<Row> insert(BulkEntity entity, List<Row> rows) {
+        if (rows.isEmpty()) {
+            return rows;
+        }
+        try {
+            savepointTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(entity.insertSql(), rows.stream()
+                    .map(row -> row.values)
+                    .collect(Collectors.toList())));
+
+            return rows;
+        } catch (DataAccessException e) {
+            List<Row> written = new ArrayList<>();
+            for (Row row : rows) {
+                try {
+                    savepointTemplate.executeWithoutResult(status -> jdbcTemplate.update(entity.insertSql(), row.values));
+                    written.add(row);
+                } catch (DataAccessException rowError) {
+                    row.reject("Строка не записана: " + NestedExceptionUtils.getMostSpecificCause(rowError).getMessage());
+                }
+            }
+
+            return written;
+        }
+    }
+
+    /**
+     * Imported rows keep their ids, but Hibernate hands out ids up to the last value taken from the sequence
+     * from blocks it already holds, so rows with such ids are rejected. The sequence is moved past the other
+     * rows before they are written, so the next block Hibernate takes starts above them. The value taken here
+     * is never handed out, which keeps the sequence strictly increasing. Returns the rows that were not rejected.
+     */
+    private List<Row> reserveIds(BulkEntity entity, List<Row> rows) {
+        if (rows.isEmpty()) {
+            return rows;
+        }
+        int id = entity.indexOf("id");
+        long next = jdbcTemplate.queryForObject("select nextval('" + entity.getSequence() + "')", Long.class);
+        long handedOut = next - ID_ALLOCATION;
+        long maxId = 0;
+        List<Row> accepted = new ArrayList<>();
+        for (Row row : rows) {
+            long rowId = (Long) row.values[id];
+            if (rowId <= handedOut) {
+                row.reject("Id " + rowId + " может быть уже выдан сервером, " +
+                        "id импортируемых строк должны быть больше " + handedOut);
+            } else {
+                maxId = Math.max(maxId, rowId);
+                accepted.add(row);
+            }
+        }
+        if (next < maxId + ID_ALLOCATION) {
+            jdbcTemplate.execute("alter sequence " + entity.getSequence() + " restart with " + (maxId + ID_ALLOCATION));
+        }
+
+        return accepted;
+    }
+
+    private static Item toItem(Object[] values) {
+        BulkEntity items = BulkEntity.ITEMS;
+        Long requestId = (Long) values[items.indexOf("requestId")];
+
+        return Item.builder()
+                .id((Long) values[items.indexOf("id")])
+                .name((String) values[items.indexOf("name")])
+                .description((String) values[items.indexOf("description")])
+                .available((Boolean) values[items.indexOf("available")])
+                .owner(User.builder().id((Long) values[items.indexOf("ownerId")]).build())
+                .request(requestId != null ? ItemRequest.builder().id(requestId).build() : null)
+                .build();
+    }
+
+    private static Booking toBooking(Object[] values) {
+        BulkEntity bookings = BulkEntity.BOOKINGS;
+
+        return Booking.builder()
+                .id((Long) values[bookings.indexOf("id")])
+                .start(((Timestamp) values[bookings.indexOf("start")]).toLocalDateTime())
+                .end(((Timestamp) values[bookings.indexOf("end")]).toLocalDateTime())
+                .item(Item.builder().id((Long) values[bookings.indexOf("itemId")]).build())
+                .booker(User.builder().id((Long) values[bookings.indexOf("bookerId")]).build())
+                .status(BookingStatus.valueOf((String) values[bookings.indexOf("status")]))
+                .build();
+    }
+
+    /**
+     * A non-blank line of the file: either the statement parameters or the reason it was rejected.
+     */
+    private static class Row {
+        private final long line;
+
+        private final Object[] values;
+
+        private String error;
+
+        private Row(long line, Object[] values, String error) {
+            this.line = line;
+            this.values = values;
+            this.error = error;
+        }
+
+        static Row valid(long line, Object[] values) {
+            return new Row(line, values, null);
+        }
+
+        static Row rejected(long line, String error) {
+            return new Row(line, null, error);
+        }
+
+        boolean isValid() {
+            return error == null;
+        }
+
+        void reject(String error) {
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package ru.practicum.shareit.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Bounded read-through cache of users and items looked up by id, shared by all requests. Entries expire after
+ * the configured ttl and are evicted when a user or an item is changed or deleted. Hit and miss counters are
+ * published as the users and items cache metrics, cache.hit.ratio is the share of lookups served from memory.
+ * <p>
+ * The cache keeps detached copies that are never attached to a persistence context: they may be read and
+ * referenced from new entities, but must not be changed or saved. Changes go through the repositories.
+ */
+@Component
+public class EntityCache {
+    private final UserRepository userRepository;
+
+    private final ItemRepository itemRepository;
+
+    private final Cache<Long, User> users;
+
+    private final Cache<Long, Item> items;
+
+    public EntityCache(UserRepository userRepository, ItemRepository itemRepository,
+                       @Value("${shareit.cache.ttl:5m}") Duration ttl,
+                       @Value("${shareit.cache.maximum-size:10000}") long maximumSize,
+                       MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.itemRepository = itemRepository;
+        this.users = build(ttl, maximumSize, "users", meterRegistry);
+        this.items = build(ttl, maximumSize, "items", meterRegistry);
+    }
+
+    public Optional<User> findUser(Long id) {
+        return Optional.ofNullable(users.get(id, key -> userRepository.findById(key)
+                .map(EntityCache::copy)
+                .orElse(null)));
+    }
+
+    /**
+     * Checks that a user exists without loading it when it is not cached.
+     */
+    public boolean userExists(Long id) {
+        return users.getIfPresent(id) != null || userRepository.existsUserById(id);
+    }
+
+    /**
+     * Returns the item with its owner and request.
+     */
+    public Optional<Item> findItem(Long id) {
+        return Optional.ofNullable(items.get(id, key -> itemRepository.findWithOwnerAndRequestById(key)
+                .map(EntityCache::copy)
+                .orElse(null)));
+    }
+
+    /**
+     * Evicts the user at once and again when the transaction completes, so that a copy loaded by another
+     * request before the change is committed does not stay in the cache. Deleting a user also deletes the items
+     * and requests of the user and the items made for those requests, so all items are evicted as well.
+     */
+    public void evictUser(Long id) {
+        evict(() -> {
+            users.invalidate(id);
+            items.invalidateAll();
+        });
+    }
+
+    public void evictItem(Long id) {
+        evict(() -> items.invalidate(id));
+    }
+
+    private static void evict(Runnable action) {
+        action.run();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+
+    private static <V> Cache<Long, V> build(Duration ttl, long maximumSize, String name, MeterRegistry meterRegistry) {
+        Cache<Long, V> cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .tag("cache", name)
+                .register(meterRegistry);
+
+        return cache;
+    }
+
+    private static User copy(User user) {
+        return User.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .build();
+    }
+
+    private static Item copy(Item item) {
+        ItemRequest request = item.getRequest();
+        return Item.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .owner(copy(item.getOwner()))
+                .request(request == null ? null : ItemRequest.builder()
+                        .id(request.getId())
+                        .description(request.getDescription())
+                        .requestor(copy(request.getRequestor()))
+                        .created(request.getCreated())
+                        .build())
+                .build();
+    }
+}
@@ -1,10 +1,13 @@
 package ru.practicum.shareit.item;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.AvailabilityDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -23,6 +26,11 @@ public class ItemController {
         return itemService.getAll(userId, from, size);
     }
 
+    @GetMapping(params = "ids")
+    public List<ItemDto> getAllById(@RequestHeader("X-Sharer-User-Id") Long userId, @RequestParam List<Long> ids) {
+        return itemService.getAllById(ids, userId);
+    }
+
     @GetMapping("/{id}")
     public ItemDto getById(@PathVariable Long id, @RequestHeader("X-Sharer-User-Id") Long userId) {
         return itemService.getById(id, userId);
@@ -44,6 +52,15 @@ public class ItemController {
         itemService.delete(id);
     }
 
+    @GetMapping("/{id}/availability")
+    public List<AvailabilityDto> getAvailability(@PathVariable Long id,
+                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                 LocalDateTime from,
+                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                 LocalDateTime to) {
+        return itemService.getAvailability(id, from, to);
+    }
+
     @GetMapping("/search")
     public List<ItemDto> search(@RequestParam String text,
                                 @RequestParam(defaultValue = "0") int from,
@@ -51,6 +68,17 @@ public class ItemController {
         return itemService.search(text, from, size);
     }
 
+    @GetMapping(value = "/search", params = {"start", "end"})
+    public List<ItemDto> searchAvailable(@RequestParam String text,
+                                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                         LocalDateTime start,
+                                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                         LocalDateTime end,
+                                         @RequestParam(defaultValue = "0") int from,
+                                         @RequestParam(defaultValue = "10") int size) {
+        return itemService.searchAvailable(text, start, end, from, size);
+    }
+
     @PostMapping("/{itemId}/comment")
     public CommentDto createComment(@PathVariable Long itemId, @RequestHeader("X-Sharer-User-Id") Long userId,
                                     @RequestBody CommentDto commentDto) {
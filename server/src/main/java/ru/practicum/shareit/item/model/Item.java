@@ -8,6 +8,12 @@ import javax.persistence.*;
 
 @Entity
 @Table(name = "items")
+@NamedEntityGraph(name = "Item.withOwnerAndRequest",
+        attributeNodes = {
+                @NamedAttributeNode("owner"),
+                @NamedAttributeNode(value = "request", subgraph = "request")
+        },
+        subgraphs = @NamedSubgraph(name = "request", attributeNodes = @NamedAttributeNode("requestor")))
 @Getter
 @Setter
 @Builder
@@ -15,7 +21,8 @@ import javax.persistence.*;
 @NoArgsConstructor
 public class Item {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     private Long id;
 
     @Column(length = 50, nullable = false)
@@ -27,11 +34,11 @@ public class Item {
     @Column(name = "is_available")
     private Boolean available;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_owner")
     private User owner;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "request_id", referencedColumnName = "id")
     private ItemRequest request;
 }
\ No newline at end of file
@@ -1,10 +1,16 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    @EntityGraph("Comment.withAuthor")
     List<Comment> findAllByItemId(Long itemId);
+
+    @EntityGraph("Comment.withAuthor")
+    List<Comment> findAllByItemIdIn(Collection<Long> itemIds);
 }
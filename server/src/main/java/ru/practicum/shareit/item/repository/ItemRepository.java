@@ -1,21 +1,72 @@
 package ru.practicum.shareit.item.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.item.model.Item;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
+    @EntityGraph("Item.withOwnerAndRequest")
+    Optional<Item> findWithOwnerAndRequestById(Long id);
+
     List<Item> findAllByRequestId(Long requestId);
 
-    Page<Item> findAllByOwnerId(Long ownerId, Pageable pageable);
+    Slice<Item> findAllByOwnerId(Long ownerId, Pageable pageable);
+
+    /**
+     * Ids of the items deleted together with the user: owned by the user or answering the user's requests.
+     */
+    @Query(" select i.id from Item i left join i.request r " +
+            "where i.owner.id = ?1 or r.requestor.id = ?1 ")
+    List<Long> findIdsByOwnerIdOrRequestorId(Long userId);
 
     @Query(" select i from Item i " +
             "where i.available = true and upper(i.name) like upper(concat('%', ?1, '%')) " +
             "or  i.available = true and upper(i.description) like upper(concat('%', ?1, '%')) " +
             "order by i.id asc ")
-    Page<Item> search(String text, Pageable pageable);
+    Slice<Item> search(String text, Pageable pageable);
+
+    @Query(value = "select i.* from items i " +
+            "where i.is_available " +
+            "and (i.name ilike concat('%', ?1, '%') or i.description ilike concat('%', ?1, '%')) " +
+            "order by i.name ilike concat('%', ?1, '%') desc, " +
+            "similarity(i.name, ?1) desc, word_similarity(?1, i.description) desc, i.id asc",
+            nativeQuery = true)
+    Slice<Item> searchByTrigrams(String text, Pageable pageable);
+
+    /**
+     * Same as {@link #search}, leaving out items with a booking in one of the statuses that overlaps
+     * the half-open period.
+     */
+    @Query(" select i from Item i " +
+            "where (i.available = true and upper(i.name) like upper(concat('%', ?1, '%')) " +
+            "or  i.available = true and upper(i.description) like upper(concat('%', ?1, '%'))) " +
+            "and not exists (select b.id from Booking b where b.item = i and b.status in ?2 " +
+            "and b.start < ?4 and b.end > ?3) " +
+            "order by i.id asc ")
+    Slice<Item> searchAvailable(String text, Collection<BookingStatus> statuses, LocalDateTime start,
+                                LocalDateTime end, Pageable pageable);
+
+    /**
+     * Same as {@link #searchByTrigrams}, leaving out items with a waiting or approved booking that overlaps
+     * the half-open period. The anti-join is answered from the ex_bookings_item_period exclusion constraint index.
+     */
+    @Query(value = "select i.* from items i " +
+            "where i.is_available " +
+            "and (i.name ilike concat('%', ?1, '%') or i.description ilike concat('%', ?1, '%')) " +
+            "and not exists (select 1 from bookings b where b.item_id = i.id " +
+            "and b.status in ('WAITING', 'APPROVED') " +
+            "and tsrange(b.start_date, b.end_date) && tsrange(cast(?2 as timestamp), cast(?3 as timestamp))) " +
+            "order by i.name ilike concat('%', ?1, '%') desc, " +
+            "similarity(i.name, ?1) desc, word_similarity(?1, i.description) desc, i.id asc",
+            nativeQuery = true)
+    Slice<Item> searchAvailableByTrigrams(String text, LocalDateTime start, LocalDateTime end, Pageable pageable);
 }
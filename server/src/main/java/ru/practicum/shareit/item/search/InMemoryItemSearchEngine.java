@@ -0,0 +1,405 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-process trigram inverted index over item names and descriptions. Every trigram maps to a sorted array of
+ * item ids, candidates are the intersection of the arrays of the query trigrams filtered by the bitmap of
+ * available items. Items are answered from the snapshots kept in the index, so a search never touches the
+ * database. The index is filled from the database on startup and updated after each committed item change.
+ * A search for items free in a period checks the matches, best first, for bookings in the period with one query
+ * per batch of matches and stops once the page is filled, so the cost follows the page and not the number of
+ * bookings.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "memory")
+public class InMemoryItemSearchEngine implements ItemSearchEngine {
+    private static final int GRAM = 3;
+
+    private static final long[] EMPTY = new long[0];
+
+    private static final int BOOKED_BATCH = 1000;
+
+    private static final List<BookingStatus> BUSY = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    private final ItemRepository itemRepository;
+
+    private final BookingRepository bookingRepository;
+
+    private final Map<Long, Document> documents = new HashMap<>();
+
+    private final Map<String, long[]> postings = new HashMap<>();
+
+    private final BitSet available = new BitSet();
+
+    private final Map<Long, Set<Long>> itemIdsByOwner = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public InMemoryItemSearchEngine(ItemRepository itemRepository, BookingRepository bookingRepository) {
+        this.itemRepository = itemRepository;
+        this.bookingRepository = bookingRepository;
+    }
+
+    /**
+     * Builds the postings of all items at once: the ids of every trigram are collected, sorted once and then
+     * published, instead of being inserted one by one into arrays copied on every insert.
+     */
+    @PostConstruct
+    void load() {
+        Map<String, Postings> loaded = new HashMap<>();
+        lock.writeLock().lock();
+        try {
+            for (Item item : itemRepository.findAll()) {
+                Document document = new Document(item);
+                documents.put(document.id, document);
+                link(document);
+                for (String gram : document.grams()) {
+                    loaded.computeIfAbsent(gram, key -> new Postings()).add(document.id);
+                }
+                available.set(Math.toIntExact(document.id), document.available);
+            }
+            loaded.forEach((gram, ids) -> postings.put(gram, ids.toSortedArray()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<ItemDto> search(String text, int from, int size) {
+        return page(matches(text), from, size);
+    }
+
+    @Override
+    public List<ItemDto> searchAvailable(String text, LocalDateTime start, LocalDateTime end, int from, int size) {
+        List<Document> matches = matches(text);
+        long needed = (long) from / size * size + size;
+        int batch = (int) Math.min(needed, BOOKED_BATCH);
+        List<Document> free = new ArrayList<>();
+        for (int i = 0; i < matches.size() && free.size() < needed; i += batch) {
+            List<Document> part = matches.subList(i, Math.min(i + batch, matches.size()));
+            Set<Long> booked = new HashSet<>(bookingRepository.findItemIdsByItemIdInAndStatusInAndPeriod(
+                    part.stream().map(document -> document.id).collect(Collectors.toList()), BUSY, start, end));
+            part.stream()
+                    .filter(document -> !booked.contains(document.id))
+                    .forEach(free::add);
+        }
+
+        return page(free, from, size);
+    }
+
+    @Override
+    public void index(Item item) {
+        Document document = new Document(item);
+        afterCommit(() -> put(document));
+    }
+
+    @Override
+    public void remove(Long itemId) {
+        afterCommit(() -> delete(List.of(itemId)));
+    }
+
+    /**
+     * Removes the given items and the items the index holds for the user as owner, the latter covers items
+     * indexed after the ids were looked up.
+     */
+    @Override
+    public void removeAllByUserId(Long userId, Collection<Long> itemIds) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                Set<Long> removed = new HashSet<>(itemIds);
+                removed.addAll(itemIdsByOwner.getOrDefault(userId, Set.of()));
+                delete(removed);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Documents matching the text, most relevant first and in id order within a rank.
+     */
+    private List<Document> matches(String text) {
+        String query = normalize(text);
+        List<List<Document>> ranks = List.of(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        lock.readLock().lock();
+        try {
+            for (long id : candidates(query)) {
+                Document document = documents.get(id);
+                int score = document.score(query);
+                if (score > 0) {
+                    ranks.get(ranks.size() - score).add(document);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return ranks.stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    private static List<ItemDto> page(List<Document> documents, int from, int size) {
+        return documents.stream()
+                .skip((long) from / size * size)
+                .limit(size)
+                .map(Document::toItemDto)
+                .collect(Collectors.toList());
+    }
+
+    private void put(Document document) {
+        lock.writeLock().lock();
+        try {
+            unlink(documents.put(document.id, document));
+            link(document);
+            for (String gram : document.grams()) {
+                postings.put(gram, insert(postings.getOrDefault(gram, EMPTY), document.id));
+            }
+            available.set(Math.toIntExact(document.id), document.available);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void delete(Collection<Long> itemIds) {
+        lock.writeLock().lock();
+        try {
+            for (Long itemId : itemIds) {
+                unlink(documents.remove(itemId));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void link(Document document) {
+        if (document.ownerId != null) {
+            itemIdsByOwner.computeIfAbsent(document.ownerId, ownerId -> new HashSet<>()).add(document.id);
+        }
+    }
+
+    private void unlink(Document document) {
+        if (document == null) {
+            return;
+        }
+        Set<Long> owned = itemIdsByOwner.get(document.ownerId);
+        if (owned != null) {
+            owned.remove(document.id);
+            if (owned.isEmpty()) {
+                itemIdsByOwner.remove(document.ownerId);
+            }
+        }
+        for (String gram : document.grams()) {
+            long[] ids = remove(postings.getOrDefault(gram, EMPTY), document.id);
+            if (ids.length == 0) {
+                postings.remove(gram);
+            } else {
+                postings.put(gram, ids);
+            }
+        }
+        available.clear(Math.toIntExact(document.id));
+    }
+
+    /**
+     * Available items sharing every trigram of the query, in id order. Queries shorter than a trigram fall back
+     * to all available items.
+     */
+    private long[] candidates(String query) {
+        if (query.length() < GRAM) {
+            return available.stream().asLongStream().toArray();
+        }
+        List<long[]> lists = new ArrayList<>();
+        for (String gram : grams(query)) {
+            long[] ids = postings.get(gram);
+            if (ids == null) {
+                return EMPTY;
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(ids -> ids.length));
+        long[] result = new long[lists.get(0).length];
+        int count = 0;
+        int[] positions = new int[lists.size()];
+        for (long id : lists.get(0)) {
+            if (available.get(Math.toIntExact(id)) && containsInAll(lists, positions, id)) {
+                result[count++] = id;
+            }
+        }
+
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Candidates come in ascending order, so every search in a longer list starts where the previous one ended.
+     */
+    private static boolean containsInAll(List<long[]> lists, int[] positions, long id) {
+        for (int i = 1; i < lists.size(); i++) {
+            long[] ids = lists.get(i);
+            int position = Arrays.binarySearch(ids, positions[i], ids.length, id);
+            if (position < 0) {
+                positions[i] = -position - 1;
+                return false;
+            }
+            positions[i] = position + 1;
+        }
+
+        return true;
+    }
+
+    private static long[] insert(long[] ids, long id) {
+        int position = Arrays.binarySearch(ids, id);
+        if (position >= 0) {
+            return ids;
+        }
+        position = -position - 1;
+        long[] result = new long[ids.length + 1];
+        System.arraycopy(ids, 0, result, 0, position);
+        result[position] = id;
+        System.arraycopy(ids, position, result, position + 1, ids.length - position);
+
+        return result;
+    }
+
+    private static long[] remove(long[] ids, long id) {
+        int position = Arrays.binarySearch(ids, id);
+        if (position < 0) {
+            return ids;
+        }
+        long[] result = new long[ids.length - 1];
+        System.arraycopy(ids, 0, result, 0, position);
+        System.arraycopy(ids, position + 1, result, position, ids.length - position - 1);
+
+        return result;
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM));
+        }
+
+        return grams;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Ids of a trigram collected on startup, grown by doubling.
+     */
+    private static class Postings {
+        private long[] ids = new long[4];
+
+        private int size;
+
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        long[] toSortedArray() {
+            long[] result = Arrays.copyOf(ids, size);
+            Arrays.sort(result);
+            return result;
+        }
+    }
+
+    /**
+     * Snapshot of the item fields returned by search.
+     */
+    private static class Document {
+        private final long id;
+
+        private final Long ownerId;
+
+        private final Long requestId;
+
+        private final String name;
+
+        private final String description;
+
+        private final String normalizedName;
+
+        private final String normalizedDescription;
+
+        private final boolean available;
+
+        Document(Item item) {
+            this.id = item.getId();
+            this.ownerId = item.getOwner() != null ? item.getOwner().getId() : null;
+            this.requestId = item.getRequest() != null ? item.getRequest().getId() : null;
+            this.name = item.getName();
+            this.description = item.getDescription();
+            this.normalizedName = normalize(name);
+            this.normalizedDescription = normalize(description);
+            this.available = Boolean.TRUE.equals(item.getAvailable());
+        }
+
+        Set<String> grams() {
+            Set<String> grams = InMemoryItemSearchEngine.grams(normalizedName);
+            grams.addAll(InMemoryItemSearchEngine.grams(normalizedDescription));
+            return grams;
+        }
+
+        /**
+         * A match in the name weighs more than a match in the description; zero means no match.
+         */
+        int score(String query) {
+            return (normalizedName.contains(query) ? 2 : 0) + (normalizedDescription.contains(query) ? 1 : 0);
+        }
+
+        ItemDto toItemDto() {
+            return ItemDto.builder()
+                    .id(id)
+                    .name(name)
+                    .description(description)
+                    .available(available)
+                    .requestId(requestId)
+                    .comments(new ArrayList<>())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Full-text search over available items. The implementation is chosen by the {@code shareit.search.engine}
+ * property; engines that keep their own index are notified of item changes, the others ignore them.
+ */
+public interface ItemSearchEngine {
+    /**
+     * Returns available items whose name or description contains the text, most relevant first.
+     */
+    List<ItemDto> search(String text, int from, int size);
+
+    /**
+     * Same as {@link #search}, leaving out items with a waiting or approved booking that overlaps the half-open
+     * period, in one query and without a query per item.
+     */
+    List<ItemDto> searchAvailable(String text, LocalDateTime start, LocalDateTime end, int from, int size);
+
+    default void index(Item item) {
+    }
+
+    default void remove(Long itemId) {
+    }
+
+    /**
+     * Drops the items deleted together with the user, called before the user is deleted.
+     *
+     * @param itemIds ids of the items owned by the user or answering the user's requests
+     */
+    default void removeAllByUserId(Long userId, Collection<Long> itemIds) {
+    }
+}
@@ -1,8 +1,10 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.booking.dto.AvailabilityDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
@@ -10,13 +12,19 @@ public interface ItemService {
 
     ItemDto getById(Long id, Long ownerId);
 
+    List<ItemDto> getAllById(List<Long> ids, Long userId);
+
     ItemDto create(ItemDto itemDto, Long userId);
 
     ItemDto update(ItemDto itemDto, Long id, Long userId);
 
     void delete(Long id);
 
+    List<AvailabilityDto> getAvailability(Long id, LocalDateTime from, LocalDateTime to);
+
     List<ItemDto> search(String text, int from, int size);
 
+    List<ItemDto> searchAvailable(String text, LocalDateTime start, LocalDateTime end, int from, int size);
+
     CommentDto createComment(Long itemId, Long userId, CommentDto commentDto);
 }
@@ -3,7 +3,13 @@ package ru.practicum.shareit.item.service;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.dto.AvailabilityDto;
+import ru.practicum.shareit.booking.schedule.BookingCalendar;
+import ru.practicum.shareit.booking.schedule.BookingSchedule;
+import ru.practicum.shareit.cache.EntityCache;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.CommentMapper;
@@ -14,16 +20,20 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.booking.BookingMapper.toBookingShortDto;
@@ -37,38 +47,50 @@ import static ru.practicum.shareit.item.ItemMapper.toItemDto;
 public class ItemServiceImpl implements ItemService {
     private final ItemRepository itemRepository;
 
-    private final UserRepository userRepository;
-
     private final BookingRepository bookingRepository;
 
     private final CommentRepository commentRepository;
 
     private final ItemRequestRepository itemRequestRepository;
 
-    public ItemServiceImpl(ItemRepository itemRepository, UserRepository userRepository, BookingRepository bookingRepository,
-                           CommentRepository commentRepository, ItemRequestRepository itemRequestRepository) {
+    private final ItemSearchEngine itemSearchEngine;
+
+    private final EntityCache entityCache;
+
+    private final BookingSchedule bookingSchedule;
+
+    private final BookingCalendar bookingCalendar;
+
+    public ItemServiceImpl(ItemRepository itemRepository, BookingRepository bookingRepository,
+                           CommentRepository commentRepository, ItemRequestRepository itemRequestRepository,
+                           ItemSearchEngine itemSearchEngine, EntityCache entityCache,
+                           BookingSchedule bookingSchedule, BookingCalendar bookingCalendar) {
         this.itemRepository = itemRepository;
-        this.userRepository = userRepository;
         this.bookingRepository = bookingRepository;
         this.commentRepository = commentRepository;
         this.itemRequestRepository = itemRequestRepository;
+        this.itemSearchEngine = itemSearchEngine;
+        this.entityCache = entityCache;
+        this.bookingSchedule = bookingSchedule;
+        this.bookingCalendar = bookingCalendar;
     }
 
     @Transactional(readOnly = true)
     @Override
     public List<ItemDto> getAll(Long userId, int from, int size) {
-        return itemRepository.findAllByOwnerId(userId, PageRequest.of(from / size, size))
+        List<ItemDto> items = itemRepository.findAllByOwnerId(userId, PageRequest.of(from / size, size))
                 .stream()
                 .sorted(Comparator.comparing(Item::getId))
                 .map(ItemMapper::toItemDto)
-                .map(this::setFieldsToItemDto)
                 .collect(Collectors.toList());
+
+        return setFieldsToItemDtos(items, items);
     }
 
     @Transactional(readOnly = true)
     @Override
     public ItemDto getById(Long id, Long ownerId) {
-        Item item = itemRepository.findById(id)
+        Item item = entityCache.findItem(id)
                 .orElseThrow(() -> new NotFoundException("Не найдена вещь с id: " + id));
         ItemDto itemDto = toItemDto(item);
         itemDto.setComments(commentRepository.findAllByItemId(id)
@@ -76,16 +98,43 @@ public class ItemServiceImpl implements ItemService {
                 .map(CommentMapper::toCommentDto)
                 .collect(Collectors.toList()));
         if (item.getOwner().getId().equals(ownerId)) {
-            setFieldsToItemDto(itemDto);
+            setBookingsToItemDto(itemDto);
         }
 
         return itemDto;
     }
 
+    /**
+     * Items in the order of the requested ids, unknown ids are skipped. As with a single item, the last and
+     * next bookings are filled only for the items of the user.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public List<ItemDto> getAllById(List<Long> ids, Long userId) {
+        Map<Long, Item> items = itemRepository.findAllById(ids)
+                .stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        List<ItemDto> itemDtos = new ArrayList<>();
+        List<ItemDto> ownItemDtos = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            Item item = items.get(id);
+            if (item == null) {
+                continue;
+            }
+            ItemDto itemDto = toItemDto(item);
+            itemDtos.add(itemDto);
+            if (item.getOwner().getId().equals(userId)) {
+                ownItemDtos.add(itemDto);
+            }
+        }
+
+        return setFieldsToItemDtos(itemDtos, ownItemDtos);
+    }
+
     @Transactional
     @Override
     public ItemDto create(ItemDto itemDto, Long userId) {
-        User user = userRepository.findById(userId)
+        User user = entityCache.findUser(userId)
                 .orElseThrow(() -> new NotFoundException("Невозможно создать вещь - " +
                         "не найден пользователь с id: " + userId));
         Item item = toItem(itemDto);
@@ -97,6 +146,7 @@ public class ItemServiceImpl implements ItemService {
             item.setRequest(itemRequest);
         }
         itemRepository.save(item);
+        itemSearchEngine.index(item);
 
         return toItemDto(item);
     }
@@ -112,6 +162,8 @@ public class ItemServiceImpl implements ItemService {
         Optional.ofNullable(itemDto.getName()).ifPresent(item::setName);
         Optional.ofNullable(itemDto.getDescription()).ifPresent(item::setDescription);
         Optional.ofNullable(itemDto.getAvailable()).ifPresent(item::setAvailable);
+        itemSearchEngine.index(item);
+        entityCache.evictItem(id);
 
         return toItemDto(itemRepository.save(item));
     }
@@ -120,30 +172,61 @@ public class ItemServiceImpl implements ItemService {
     @Override
     public void delete(Long id) {
         itemRepository.deleteById(id);
+        itemSearchEngine.remove(id);
+        entityCache.evictItem(id);
+        bookingSchedule.releaseAllByItemId(id);
+        bookingCalendar.evict(id);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<AvailabilityDto> getAvailability(Long id, LocalDateTime from, LocalDateTime to) {
+        if (!to.isAfter(from)) {
+            throw new BadRequestException("Невозможно получить расписание вещи - " +
+                    "дата окончания периода должна быть позже даты начала");
+        }
+        entityCache.findItem(id)
+                .orElseThrow(() -> new NotFoundException("Невозможно получить расписание вещи - " +
+                        "не найдена вещь с id " + id));
+
+        return bookingCalendar.getAvailability(id, from, to);
     }
 
     @Transactional(readOnly = true)
     @Override
     public List<ItemDto> search(String text, int from, int size) {
-        List<ItemDto> searchedItems = new ArrayList<>();
         if (text.isBlank()) {
-            return searchedItems;
+            return new ArrayList<>();
         }
-        searchedItems = itemRepository.search(text, PageRequest.of(from / size, size))
-                .stream()
-                .map(ItemMapper::toItemDto)
-                .collect(Collectors.toList());
 
-        return searchedItems;
+        return itemSearchEngine.search(text, from, size);
+    }
+
+    /**
+     * Same as {@link #search}, but only items that are free for the whole period: without a waiting or approved
+     * booking overlapping it, so that each of them can be booked for the period.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public List<ItemDto> searchAvailable(String text, LocalDateTime start, LocalDateTime end, int from, int size) {
+        if (!end.isAfter(start)) {
+            throw new BadRequestException("Невозможно найти вещи - " +
+                    "дата окончания периода должна быть позже даты начала");
+        }
+        if (text.isBlank()) {
+            return new ArrayList<>();
+        }
+
+        return itemSearchEngine.searchAvailable(text, start, end, from, size);
     }
 
     @Transactional
     @Override
     public CommentDto createComment(Long itemId, Long userId, CommentDto commentDto) {
-        User user = userRepository.findById(userId)
+        User user = entityCache.findUser(userId)
                 .orElseThrow(() -> new NotFoundException("Невозможно создать комментарий - " +
                         "не существует пользователя с id " + userId));
-        Item item = itemRepository.findById(itemId)
+        Item item = entityCache.findItem(itemId)
                 .orElseThrow(() -> new NotFoundException("Невозможно создать комментарий - " +
                         "не существует вещи с id " + itemId));
         if (bookingRepository.findAllByBookerIdAndItemIdAndStatusEqualsAndEndIsBefore(userId, itemId, APPROVED,
@@ -160,15 +243,51 @@ public class ItemServiceImpl implements ItemService {
         return toCommentDto(comment);
     }
 
-    private ItemDto setFieldsToItemDto(ItemDto itemDto) {
-        itemDto.setLastBooking(bookingRepository.findAllByItemIdOrderByStartAsc(itemDto.getId()).isEmpty() ?
-                null : toBookingShortDto(bookingRepository.findAllByItemIdOrderByStartAsc(itemDto.getId()).get(0)));
-        itemDto.setNextBooking(itemDto.getLastBooking() == null ?
-                null : toBookingShortDto(bookingRepository.findAllByItemIdOrderByStartDesc(itemDto.getId()).get(0)));
-        itemDto.setComments(commentRepository.findAllByItemId(itemDto.getId())
-                .stream()
-                .map(CommentMapper::toCommentDto)
-                .collect(Collectors.toList()));
+    private ItemDto setBookingsToItemDto(ItemDto itemDto) {
+        LocalDateTime now = LocalDateTime.now();
+        itemDto.setLastBooking(bookingRepository
+                .findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(itemDto.getId(), APPROVED, now)
+                .map(BookingMapper::toBookingShortDto)
+                .orElse(null));
+        itemDto.setNextBooking(bookingRepository
+                .findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(itemDto.getId(), APPROVED, now)
+                .map(BookingMapper::toBookingShortDto)
+                .orElse(null));
         return itemDto;
     }
+
+    private List<ItemDto> setFieldsToItemDtos(List<ItemDto> itemDtos, List<ItemDto> ownItemDtos) {
+        if (itemDtos.isEmpty()) {
+            return itemDtos;
+        }
+        List<Long> itemIds = itemDtos.stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList());
+        List<Long> ownItemIds = ownItemDtos.stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList());
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Booking> lastBookings = ownItemIds.isEmpty() ? Map.of() : groupFirstByItemId(bookingRepository
+                .findLastBookingsByItemIdIn(ownItemIds, APPROVED, now));
+        Map<Long, Booking> nextBookings = ownItemIds.isEmpty() ? Map.of() : groupFirstByItemId(bookingRepository
+                .findNextBookingsByItemIdIn(ownItemIds, APPROVED, now));
+        Map<Long, List<CommentDto>> comments = commentRepository.findAllByItemIdIn(itemIds)
+                .stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(CommentMapper::toCommentDto, Collectors.toList())));
+        for (ItemDto itemDto : itemDtos) {
+            Booking lastBooking = lastBookings.get(itemDto.getId());
+            Booking nextBooking = nextBookings.get(itemDto.getId());
+            itemDto.setLastBooking(lastBooking == null ? null : toBookingShortDto(lastBooking));
+            itemDto.setNextBooking(nextBooking == null ? null : toBookingShortDto(nextBooking));
+            itemDto.setComments(comments.getOrDefault(itemDto.getId(), new ArrayList<>()));
+        }
+        return itemDtos;
+    }
+
+    private Map<Long, Booking> groupFirstByItemId(List<Booking> bookings) {
+        return bookings.stream()
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(), Function.identity(),
+                        BinaryOperator.minBy(Comparator.comparing(Booking::getId))));
+    }
 }
@@ -4,6 +4,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.cache.EntityCache;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.repository.ItemRepository;
@@ -12,7 +13,6 @@ import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -25,20 +25,21 @@ import static ru.practicum.shareit.request.ItemRequestMapper.toItemRequestDto;
 public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestRepository itemRequestRepository;
 
-    private final UserRepository userRepository;
-
     private final ItemRepository itemRepository;
 
-    public ItemRequestServiceImpl(ItemRequestRepository itemRequestRepository, UserRepository userRepository, ItemRepository itemRepository) {
+    private final EntityCache entityCache;
+
+    public ItemRequestServiceImpl(ItemRequestRepository itemRequestRepository, ItemRepository itemRepository,
+                                  EntityCache entityCache) {
         this.itemRequestRepository = itemRequestRepository;
-        this.userRepository = userRepository;
         this.itemRepository = itemRepository;
+        this.entityCache = entityCache;
     }
 
     @Transactional
     @Override
     public ItemRequestDto create(Long userId, ItemRequestDto itemRequestDto) {
-        User user = userRepository.findById(userId)
+        User user = entityCache.findUser(userId)
                 .orElseThrow(() -> new NotFoundException("Невозможно создать запрос - " +
                         "не найден пользователь с id " + userId));
         ItemRequest itemRequest = toItemRequest(itemRequestDto);
@@ -52,9 +53,10 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     @Transactional(readOnly = true)
     @Override
     public List<ItemRequestDto> getAllByUser(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Невозможно найти запросы пользователя - " +
-                        "не найден пользователь с id " + userId));
+        if (!entityCache.userExists(userId)) {
+            throw new NotFoundException("Невозможно найти запросы пользователя - " +
+                    "не найден пользователь с id " + userId);
+        }
         return itemRequestRepository.findAllByRequestorIdOrderByCreatedAsc(userId)
                 .stream()
                 .map(ItemRequestMapper::toItemRequestDto)
@@ -65,7 +67,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     @Transactional(readOnly = true)
     @Override
     public List<ItemRequestDto> getAll(Long userId, int from, int size) {
-        User user = userRepository.findById(userId)
+        User user = entityCache.findUser(userId)
                 .orElseThrow(() -> new NotFoundException("Невозможно найти запросы - " +
                         "не найден пользователь с id " + userId));
         return itemRequestRepository.findAllByRequestorIsNot(user,
@@ -79,9 +81,10 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     @Transactional(readOnly = true)
     @Override
     public ItemRequestDto getById(Long requestId, Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Невозможно найти запрос - " +
-                        "не найден пользователь с id " + userId));
+        if (!entityCache.userExists(userId)) {
+            throw new NotFoundException("Невозможно найти запрос - " +
+                    "не найден пользователь с id " + userId);
+        }
         ItemRequest itemRequest = itemRequestRepository.findById(requestId)
                 .orElseThrow(() -> new NotFoundException("Невозможно найти запрос - " +
                         "не существует запроса с id " + requestId));
@@ -1,23 +1,61 @@
 package ru.practicum.shareit.user;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
 @RequestMapping(path = "/users")
 public class UserController {
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final UserService userService;
 
-    public UserController(UserService userService) {
+    private final ObjectWriter userWriter;
+
+    public UserController(UserService userService, ObjectMapper objectMapper) {
         this.userService = userService;
+        this.userWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
+    /**
+     * Streams all users as a JSON array, or as NDJSON if the client accepts it. Every user is written as soon as
+     * it is read from the database cursor, so the response is never held in memory.
+     */
     @GetMapping
-    public List<UserDto> getAll() {
-        return userService.getAll();
+    public ResponseEntity<StreamingResponseBody> getAll(@RequestHeader(value = HttpHeaders.ACCEPT, required = false)
+                                                        @Nullable String accept) {
+        boolean lines = accept != null && MediaType.parseMediaTypes(accept)
+                .stream()
+                .anyMatch(NDJSON::equalsTypeAndSubtype);
+
+        return ResponseEntity.ok()
+                .contentType(lines ? NDJSON : MediaType.APPLICATION_JSON)
+                .body(output -> writeAll(output, lines));
+    }
+
+    @GetMapping(params = "size")
+    public List<UserDto> getAll(@RequestParam(defaultValue = "0") int from, @RequestParam int size) {
+        return userService.getAll(from, size);
+    }
+
+    @GetMapping(params = "ids")
+    public List<UserDto> getAllById(@RequestParam List<Long> ids) {
+        return userService.getAllById(ids);
     }
 
     @GetMapping("/{id}")
@@ -39,4 +77,26 @@ public class UserController {
     public void delete(@PathVariable Long id) {
         userService.delete(id);
     }
+
+    private void writeAll(OutputStream output, boolean lines) throws IOException {
+        JsonGenerator generator = userWriter.getFactory().createGenerator(output);
+        generator.setRootValueSeparator(null);
+        if (!lines) {
+            generator.writeStartArray();
+        }
+        userService.forEach(user -> {
+            try {
+                userWriter.writeValue(generator, user);
+                if (lines) {
+                    generator.writeRaw('\n');
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        if (!lines) {
+            generator.writeEndArray();
+        }
+        generator.flush();
+    }
 }
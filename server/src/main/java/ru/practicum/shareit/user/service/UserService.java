@@ -3,12 +3,17 @@ package ru.practicum.shareit.user.service;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
-    List<UserDto> getAll();
+    List<UserDto> getAll(int from, int size);
+
+    void forEach(Consumer<UserDto> action);
 
     UserDto getById(Long id);
 
+    List<UserDto> getAllById(List<Long> ids);
+
     UserDto create(UserDto userDto);
 
     UserDto update(UserDto userDto, Long id);
@@ -1,15 +1,28 @@
 package ru.practicum.shareit.user.service;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.schedule.BookingCalendar;
+import ru.practicum.shareit.booking.schedule.BookingSchedule;
+import ru.practicum.shareit.cache.EntityCache;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static ru.practicum.shareit.user.UserMapper.toUser;
 import static ru.practicum.shareit.user.UserMapper.toUserDto;
@@ -18,30 +31,68 @@ import static ru.practicum.shareit.user.UserMapper.toUserDto;
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
 
-    public UserServiceImpl(UserRepository userRepository) {
+    private final ItemRepository itemRepository;
+
+    private final ItemSearchEngine itemSearchEngine;
+
+    private final EntityCache entityCache;
+
+    private final BookingSchedule bookingSchedule;
+
+    private final BookingCalendar bookingCalendar;
+
+    public UserServiceImpl(UserRepository userRepository, ItemRepository itemRepository,
+                           ItemSearchEngine itemSearchEngine, EntityCache entityCache,
+                           BookingSchedule bookingSchedule, BookingCalendar bookingCalendar) {
         this.userRepository = userRepository;
+        this.itemRepository = itemRepository;
+        this.itemSearchEngine = itemSearchEngine;
+        this.entityCache = entityCache;
+        this.bookingSchedule = bookingSchedule;
+        this.bookingCalendar = bookingCalendar;
     }
 
     @Transactional(readOnly = true)
     @Override
-    public List<UserDto> getAll() {
-        List<UserDto> users = new ArrayList<>();
-        for (User user : userRepository.findAll()) {
-            users.add(toUserDto(user));
-        }
+    public List<UserDto> getAll(int from, int size) {
+        return userRepository.findAllBy(PageRequest.of(from / size, size, Sort.by("id")))
+                .stream()
+                .map(UserMapper::toUserDto)
+                .collect(Collectors.toList());
+    }
 
-        return users;
+    @Transactional(readOnly = true)
+    @Override
+    public void forEach(Consumer<UserDto> action) {
+        try (Stream<UserDto> users = userRepository.streamAll()) {
+            users.forEach(action);
+        }
     }
 
     @Transactional(readOnly = true)
     @Override
     public UserDto getById(Long id) {
-        User user = userRepository.findById(id)
+        User user = entityCache.findUser(id)
                 .orElseThrow(() -> new NotFoundException("Не найден пользователь с id: " + id));
 
         return toUserDto(user);
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public List<UserDto> getAllById(List<Long> ids) {
+        Map<Long, User> users = userRepository.findAllById(ids)
+                .stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        return ids.stream()
+                .distinct()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .map(UserMapper::toUserDto)
+                .collect(Collectors.toList());
+    }
+
     @Transactional
     @Override
     public UserDto create(UserDto userDto) {
@@ -58,6 +109,7 @@ public class UserServiceImpl implements UserService {
                         "Не найден пользователь с id: " + id));
         Optional.ofNullable(userDto.getEmail()).ifPresent(updatedUser::setEmail);
         Optional.ofNullable(userDto.getName()).ifPresent(updatedUser::setName);
+        entityCache.evictUser(id);
 
         return toUserDto(userRepository.save(updatedUser));
     }
@@ -65,6 +117,12 @@ public class UserServiceImpl implements UserService {
     @Transactional
     @Override
     public void delete(Long id) {
+        List<Long> itemIds = itemRepository.findIdsByOwnerIdOrRequestorId(id);
+        itemSearchEngine.removeAllByUserId(id, itemIds);
         userRepository.deleteById(id);
+        entityCache.evictUser(id);
+        bookingSchedule.releaseAllByBookerId(id);
+        bookingSchedule.releaseAllByItemIds(itemIds);
+        bookingCalendar.evictAll();
     }
 }
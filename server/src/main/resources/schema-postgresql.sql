@@ -0,0 +1,14 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS ix_items_name_trgm ON items USING GIN (name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS ix_items_description_trgm ON items USING GIN (description gin_trgm_ops);
+
+-- Waiting and approved bookings of an item must not overlap. Periods are half-open, so a booking may start
+-- when the previous one ends. The GiST index of the constraint also answers the overlap check before an insert.
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- PostgreSQL has no ADD CONSTRAINT IF NOT EXISTS, so the constraint is dropped and added again at every startup.
+ALTER TABLE bookings DROP CONSTRAINT IF EXISTS ex_bookings_item_period;
+ALTER TABLE bookings ADD CONSTRAINT ex_bookings_item_period
+    EXCLUDE USING GIST (item_id WITH =, tsrange(start_date, end_date) WITH &&)
+    WHERE (status IN ('WAITING', 'APPROVED'));
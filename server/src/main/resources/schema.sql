@@ -1,7 +1,18 @@
-DROP TABLE IF EXISTS users, requests, items, comments, bookings;
+-- The script runs at every startup and keeps the existing tables and their data, so every statement must be
+-- idempotent.
+
+-- Ids are taken from the sequences by Hibernate in blocks of 50 (pooled optimizer), so that inserts can be batched.
+-- The increment must match the allocationSize of the entity. Sequences are kept across restarts like the tables,
+-- a restarted server takes a new block, so ids continue above every id given out before and the unused rest of
+-- the last block is skipped.
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
 
 CREATE TABLE IF NOT EXISTS users (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    id BIGINT NOT NULL,
     name VARCHAR(50) NOT NULL,
     email VARCHAR(50) NOT NULL,
     CONSTRAINT UQ_USER_EMAIL UNIQUE (email),
@@ -9,7 +20,7 @@ CREATE TABLE IF NOT EXISTS users (
 );
 
 CREATE TABLE IF NOT EXISTS requests (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    id BIGINT NOT NULL,
     description VARCHAR(1000) NOT NULL,
     requestor_id BIGINT REFERENCES users (id) ON DELETE CASCADE,
     created TIMESTAMP WITHOUT TIME ZONE,
@@ -17,7 +28,7 @@ CREATE TABLE IF NOT EXISTS requests (
 );
 
 CREATE TABLE IF NOT EXISTS items (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    id BIGINT NOT NULL,
     name VARCHAR(50) NOT NULL,
     description VARCHAR(1000) NOT NULL,
     is_available BOOLEAN,
@@ -27,7 +38,7 @@ CREATE TABLE IF NOT EXISTS items (
 );
 
 CREATE TABLE IF NOT EXISTS comments (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    id BIGINT NOT NULL,
     text VARCHAR(1000) NOT NULL,
     item_id BIGINT REFERENCES items (id) ON DELETE CASCADE NOT NULL,
     author_id BIGINT REFERENCES users (id) ON DELETE CASCADE  NOT NULL,
@@ -36,11 +47,35 @@ CREATE TABLE IF NOT EXISTS comments (
 );
 
 CREATE TABLE IF NOT EXISTS bookings (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    id BIGINT NOT NULL,
     start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
-    item_id BIGINT REFERENCES items (id) ON DELETE CASCADE NOT NULL,
-    booker_id BIGINT REFERENCES users(id) ON DELETE CASCADE NOT NULL,
+    item_id BIGINT NOT NULL,
+    booker_id BIGINT NOT NULL,
     status VARCHAR(10),
-    CONSTRAINT pk_booking PRIMARY KEY (id)
-);
\ No newline at end of file
+    version BIGINT DEFAULT 0 NOT NULL,
+    CONSTRAINT pk_booking PRIMARY KEY (id),
+    CONSTRAINT fk_bookings_item FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE,
+    CONSTRAINT fk_bookings_booker FOREIGN KEY (booker_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+-- Checkpoints of bulk imports: lines of the file committed so far and how many rows were imported or rejected.
+-- An import interrupted by a restart resumes after the last checkpoint, the rows committed before it are kept.
+CREATE TABLE IF NOT EXISTS bulk_imports (
+    id VARCHAR(100) NOT NULL,
+    entity VARCHAR(20) NOT NULL,
+    committed_lines BIGINT NOT NULL,
+    imported BIGINT NOT NULL,
+    failed BIGINT NOT NULL,
+    updated TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_bulk_import PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS ix_items_owner ON items (id_owner);
+
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_start ON bookings (booker_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_end ON bookings (booker_id, end_date);
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_status_start ON bookings (booker_id, status, start_date DESC);
+CREATE INDEX IF NOT EXISTS ix_bookings_item_start ON bookings (item_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS ix_bookings_item_end ON bookings (item_id, end_date);
+CREATE INDEX IF NOT EXISTS ix_bookings_item_status_start ON bookings (item_id, status, start_date);
@@ -0,0 +1,267 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.BookingController;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.item.ItemController;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.request.ItemRequestController;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.user.UserController;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "ru.practicum.shareit.SqlStatementRecorder")
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class SqlStatementCountTests {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired
+    private UserController userController;
+
+    @Autowired
+    private ItemController itemController;
+
+    @Autowired
+    private BookingController bookingController;
+
+    @Autowired
+    private ItemRequestController itemRequestController;
+
+    @BeforeEach
+    void init() {
+        UserDto owner = userController.create(UserDto.builder().name("owner").email("owner@email.com").build());
+        UserDto booker = userController.create(UserDto.builder().name("booker").email("booker@email.com").build());
+        ItemRequestDto itemRequest = itemRequestController.create(booker.getId(), ItemRequestDto.builder()
+                .description("item request description").build());
+        for (int i = 1; i <= 3; i++) {
+            ItemDto item = itemController.create(owner.getId(), ItemDto.builder()
+                    .name("name" + i)
+                    .description("description" + i)
+                    .available(true)
+                    .requestId(itemRequest.getId())
+                    .build());
+            bookingController.create(BookingShortDto.builder()
+                    .start(LocalDateTime.now().plusDays(i))
+                    .end(LocalDateTime.now().plusDays(i + 1))
+                    .itemId(item.getId())
+                    .build(), booker.getId());
+        }
+        itemRequestController.create(owner.getId(), ItemRequestDto.builder()
+                .description("owner item request description").build());
+        SqlStatementRecorder.clear();
+    }
+
+    @Test
+    void getBookingsByUserTest() throws Exception {
+        assertStatements("/bookings", 2L, 1);
+    }
+
+    @Test
+    void getBookingsByOwnerTest() throws Exception {
+        assertStatements("/bookings/owner", 1L, 1);
+    }
+
+    @Test
+    void getBookingsByUserAfterTest() throws Exception {
+        assertStatements("/bookings?cursor=", 2L, 1);
+    }
+
+    @Test
+    void getBookingsByOwnerAfterTest() throws Exception {
+        assertStatements("/bookings/owner?cursor=", 1L, 1);
+    }
+
+    @Test
+    void getBookingsByUncachedUserAfterTest() throws Exception {
+        UserDto user = userController.create(UserDto.builder().name("user").email("user@email.com").build());
+        SqlStatementRecorder.clear();
+        assertStatements("/bookings?cursor=", user.getId(), 2);
+    }
+
+    @Test
+    void getBookingTest() throws Exception {
+        assertStatements("/bookings/1", 1L, 1);
+    }
+
+    @Test
+    void getBookingsByIdTest() throws Exception {
+        assertStatements("/bookings?ids=1,2,3", 1L, 1);
+    }
+
+    @Test
+    void createBookingTest() throws Exception {
+        mvc.perform(post("/bookings")
+                        .header("X-Sharer-User-Id", 2L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(BookingShortDto.builder()
+                                .start(LocalDateTime.now().plusDays(10))
+                                .end(LocalDateTime.now().plusDays(11))
+                                .itemId(1L)
+                                .build())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.item.id").value(1L));
+        assertThat(SqlStatementRecorder.getStatements().size(), equalTo(1));
+    }
+
+    @Test
+    void approveBookingTest() throws Exception {
+        mvc.perform(patch("/bookings/1?approved=true").header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.booker.id").value(2L));
+        assertThat(SqlStatementRecorder.getStatements().size(), equalTo(2));
+    }
+
+    @Test
+    void createBookingsBatchTest() throws Exception {
+        List<BookingShortDto> bookings = new ArrayList<>();
+        for (long itemId = 1; itemId <= 3; itemId++) {
+            bookings.add(BookingShortDto.builder()
+                    .start(LocalDateTime.now().plusDays(10))
+                    .end(LocalDateTime.now().plusDays(11))
+                    .itemId(itemId)
+                    .build());
+        }
+        mvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", 2L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(bookings)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[2].booking.item.id").value(3L));
+        assertThat(SqlStatementRecorder.getStatements().size(), equalTo(2));
+    }
+
+    @Test
+    void approveBookingsBatchTest() throws Exception {
+        mvc.perform(patch("/bookings/batch?approved=true")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(List.of(1L, 2L, 3L))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].status", everyItem(equalTo(200))));
+        assertThat(SqlStatementRecorder.getStatements().size(), equalTo(2));
+    }
+
+    @Test
+    void getItemsTest() throws Exception {
+        assertStatements("/items", 1L, 4);
+    }
+
+    @Test
+    void getItemTest() throws Exception {
+        assertStatements("/items/1", 1L, 3);
+    }
+
+    @Test
+    void getItemsByIdTest() throws Exception {
+        assertStatements("/items?ids=1,2,3", 1L, 4);
+        SqlStatementRecorder.clear();
+        assertStatements("/items?ids=1,2,3", 2L, 2);
+    }
+
+    @Test
+    void searchItemsTest() throws Exception {
+        assertStatements("/items/search?text=desc", 1L, 0);
+    }
+
+    @Test
+    void searchAvailableItemsTest() throws Exception {
+        assertStatements("/items/search?text=desc&start=2030-01-01T00:00:00&end=2030-01-03T00:00:00", 1L, 1);
+    }
+
+    @Test
+    void getItemRequestsTest() throws Exception {
+        assertStatements("/requests/all", 1L, 2);
+    }
+
+    @Test
+    void getItemRequestsByUserTest() throws Exception {
+        assertStatements("/requests", 2L, 2);
+    }
+
+    @Test
+    void getItemRequestTest() throws Exception {
+        assertStatements("/requests/1", 1L, 2);
+    }
+
+    @Test
+    void getUserTest() throws Exception {
+        assertStatements("/users/1", 1L, 0);
+    }
+
+    @Test
+    void getUserAfterUpdateTest() throws Exception {
+        mvc.perform(patch("/users/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(UserDto.builder().name("updated").build())))
+                .andExpect(status().isOk());
+        SqlStatementRecorder.clear();
+        assertStatements("/users/1", 1L, 1);
+        SqlStatementRecorder.clear();
+        mvc.perform(get("/users/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("updated"));
+        assertThat(SqlStatementRecorder.getStatements().size(), equalTo(0));
+    }
+
+    @Test
+    void getUsersByIdTest() throws Exception {
+        assertStatements("/users?ids=1,2", 1L, 1);
+    }
+
+    @Test
+    void getUsersPagedTest() throws Exception {
+        assertStatements("/users?from=1&size=1", 1L, 1);
+    }
+
+    @Test
+    void getUsersStreamedTest() throws Exception {
+        MvcResult result = mvc.perform(get("/users"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name", contains("owner", "booker")));
+        assertThat(SqlStatementRecorder.getStatements().size(), equalTo(1));
+    }
+
+    /**
+     * Endpoints must not issue a count query, and the number of statements per request is pinned
+     * so that a new count query or lazy load (N+1) fails the build.
+     */
+    private void assertStatements(String url, Long userId, int expectedCount) throws Exception {
+        mvc.perform(get(url).header("X-Sharer-User-Id", userId))
+                .andExpect(status().isOk());
+        List<String> statements = SqlStatementRecorder.getStatements();
+        assertThat(statements, everyItem(not(containsStringIgnoringCase("count("))));
+        assertThat(statements.size(), equalTo(expectedCount));
+    }
+}
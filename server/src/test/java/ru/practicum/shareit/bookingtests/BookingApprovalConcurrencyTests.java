@@ -0,0 +1,158 @@
+package ru.practicum.shareit.bookingtests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingController;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingResultDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.item.ItemController;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserController;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class BookingApprovalConcurrencyTests {
+    private static final int BOOKINGS = 20;
+
+    private static final int THREADS = 8;
+
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Autowired
+    private BookingController bookingController;
+
+    @Autowired
+    private UserController userController;
+
+    @Autowired
+    private ItemController itemController;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private UserDto owner;
+
+    private List<Long> bookingIds;
+
+    @BeforeEach
+    void init() {
+        owner = userController.create(UserDto.builder().name("owner").email("owner@email.com").build());
+        UserDto booker = userController.create(UserDto.builder().name("booker").email("booker@email.com").build());
+        ItemDto item = itemController.create(owner.getId(), ItemDto.builder()
+                .name("name")
+                .description("description")
+                .available(true)
+                .build());
+        bookingIds = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            bookingIds.add(bookingController.create(BookingShortDto.builder()
+                    .start(START.plusDays(i))
+                    .end(START.plusDays(i + 1))
+                    .itemId(item.getId())
+                    .build(), booker.getId()).getId());
+        }
+    }
+
+    @Test
+    void concurrentApproveTest() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (Long bookingId : bookingIds) {
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<BookingStatus>> results = new ArrayList<>();
+                for (int i = 0; i < THREADS; i++) {
+                    boolean approved = i % 2 == 0;
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        try {
+                            return bookingController.approve(bookingId, owner.getId(), approved).getStatus();
+                        } catch (ConflictException | BadRequestException e) {
+                            return null;
+                        }
+                    }));
+                }
+                start.countDown();
+                List<BookingStatus> statuses = new ArrayList<>();
+                for (Future<BookingStatus> result : results) {
+                    BookingStatus status = result.get(10, TimeUnit.SECONDS);
+                    if (status != null) {
+                        statuses.add(status);
+                    }
+                }
+                assertEquals(1, statuses.size());
+                assertEquals(statuses.get(0), bookingController.getById(bookingId, owner.getId()).getStatus());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentApproveAllTest() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<List<BookingResultDto>>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        return bookingController.approveAll(bookingIds, owner.getId(), true);
+                    } catch (ConflictException e) {
+                        return null;
+                    }
+                }));
+            }
+            start.countDown();
+            int approved = 0;
+            for (Future<List<BookingResultDto>> result : results) {
+                List<BookingResultDto> bookings = result.get(10, TimeUnit.SECONDS);
+                if (bookings != null) {
+                    approved += bookings.stream()
+                            .filter(booking -> booking.getStatus() == 200)
+                            .count();
+                }
+            }
+            assertEquals(BOOKINGS, approved);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void updateWithStaleVersionTest() {
+        Long bookingId = bookingIds.get(0);
+        Long version = bookingRepository.findVersionById(bookingId).orElseThrow().getVersion();
+        BookingDto booking = bookingController.approve(bookingId, owner.getId(), true);
+        assertEquals(BookingStatus.APPROVED, booking.getStatus());
+        Integer updated = transactionTemplate.execute(status ->
+                bookingRepository.updateWaitingStatus(bookingId, version, BookingStatus.REJECTED));
+        assertEquals(0, updated);
+        assertTrue(bookingRepository.findVersionById(bookingId).orElseThrow().getVersion() > version);
+    }
+}
@@ -0,0 +1,120 @@
+package ru.practicum.shareit.bookingtests;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.AvailabilityDto;
+import ru.practicum.shareit.booking.dto.BookingPeriod;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.schedule.BookingCalendar;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookingCalendarTests {
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    private BookingRepository bookingRepository;
+
+    private BookingCalendar calendar;
+
+    private List<BookingPeriod> periods;
+
+    @BeforeEach
+    void init() {
+        bookingRepository = mock(BookingRepository.class);
+        calendar = new BookingCalendar(bookingRepository, 100, new SimpleMeterRegistry());
+        periods = new ArrayList<>();
+        when(bookingRepository.findAllByItemIdAndStatusInOrderByStartAsc(eq(1L), any())).thenReturn(periods);
+    }
+
+    @Test
+    void getAvailabilityTest() {
+        periods.add(period(10, 20));
+        periods.add(period(20, 30));
+        periods.add(period(40, 50));
+        periods.add(period(60, 60));
+        assertEquals(List.of("free 0-10", "busy 10-30", "free 30-40", "busy 40-50", "free 50-100"),
+                availability(0, 100));
+        assertEquals(List.of("busy 15-30", "free 30-40", "busy 40-45"), availability(15, 45));
+        assertEquals(List.of("free 30-40"), availability(30, 40));
+        assertEquals(List.of("free 50-70"), availability(50, 70));
+        verify(bookingRepository, times(1)).findAllByItemIdAndStatusInOrderByStartAsc(eq(1L), any());
+    }
+
+    @Test
+    void addAndRemoveTest() {
+        periods.add(period(10, 20));
+        availability(0, 100);
+        calendar.add(booking(30, 40));
+        calendar.add(booking(30, 40));
+        calendar.add(booking(0, 5));
+        assertEquals(List.of("busy 0-5", "free 5-10", "busy 10-20", "free 20-30", "busy 30-40", "free 40-100"),
+                availability(0, 100));
+        calendar.remove(booking(10, 20));
+        calendar.remove(booking(30, 35));
+        assertEquals(List.of("busy 0-5", "free 5-30", "busy 30-40", "free 40-100"), availability(0, 100));
+        calendar.evict(1L);
+        assertEquals(List.of("free 0-10", "busy 10-20", "free 20-100"), availability(0, 100));
+    }
+
+    @Test
+    void getAvailabilityAmongManyBookingsTest() {
+        for (int i = 0; i < 50_000; i++) {
+            periods.add(period(i * 10, i * 10 + 5));
+        }
+        assertEquals(List.of("busy 250003-250005", "free 250005-250010", "busy 250010-250012"),
+                availability(250_003, 250_012));
+        assertEquals(List.of("free 499995-500000"), availability(499_995, 500_000));
+    }
+
+    private List<String> availability(int fromHours, int toHours) {
+        return calendar.getAvailability(1L, START.plusHours(fromHours), START.plusHours(toHours))
+                .stream()
+                .map(this::format)
+                .collect(Collectors.toList());
+    }
+
+    private String format(AvailabilityDto availability) {
+        return (availability.getAvailable() ? "free " : "busy ")
+                + Duration.between(START, availability.getStart()).toHours() + "-"
+                + Duration.between(START, availability.getEnd()).toHours();
+    }
+
+    private BookingPeriod period(int startHours, int endHours) {
+        return new BookingPeriod() {
+            @Override
+            public LocalDateTime getStart() {
+                return START.plusHours(startHours);
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return START.plusHours(endHours);
+            }
+        };
+    }
+
+    private Booking booking(int startHours, int endHours) {
+        return Booking.builder()
+                .start(START.plusHours(startHours))
+                .end(START.plusHours(endHours))
+                .item(Item.builder().id(1L).build())
+                .status(BookingStatus.WAITING)
+                .build();
+    }
+}
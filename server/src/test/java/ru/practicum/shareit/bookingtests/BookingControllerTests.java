@@ -7,8 +7,11 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.practicum.shareit.booking.BookingController;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.BookingResultDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.ItemController;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -16,8 +19,12 @@ import ru.practicum.shareit.user.UserController;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static ru.practicum.shareit.booking.BookingStatus.APPROVED;
 import static ru.practicum.shareit.booking.BookingStatus.WAITING;
@@ -125,6 +132,77 @@ class BookingControllerTests {
         assertEquals(APPROVED, bookingController.getById(booking.getId(), user1.getId()).getStatus());
     }
 
+    @Test
+    void createAllTest() {
+        UserDto user = userController.create(userDto);
+        ItemDto item = itemController.create(user.getId(), itemDto);
+        ItemDto unavailableItem = itemController.create(user.getId(), itemDto.toBuilder().available(false).build());
+        UserDto user1 = userController.create(userDto1);
+        List<BookingResultDto> results = bookingController.createAll(List.of(
+                bookingShortDto,
+                BookingShortDto.builder().start(bookingShortDto.getStart()).end(bookingShortDto.getEnd())
+                        .itemId(unavailableItem.getId()).build(),
+                BookingShortDto.builder().start(bookingShortDto.getStart()).end(bookingShortDto.getEnd())
+                        .itemId(10L).build(),
+                BookingShortDto.builder().start(bookingShortDto.getEnd()).end(bookingShortDto.getStart())
+                        .itemId(item.getId()).build(),
+                bookingShortDto), user1.getId());
+        assertEquals(List.of(200, 400, 404, 400, 409), results.stream()
+                .map(BookingResultDto::getStatus)
+                .collect(Collectors.toList()));
+        assertEquals(WAITING, bookingController.getById(results.get(0).getBooking().getId(), user1.getId())
+                .getStatus());
+        assertNull(results.get(1).getBooking());
+        assertNotNull(results.get(1).getError());
+        assertNull(results.get(4).getBooking());
+        assertEquals(1, bookingController.getAllByUser(user1.getId(), "ALL", 0, 10).size());
+        assertThrows(NotFoundException.class, () -> bookingController.createAll(List.of(bookingShortDto), 10L));
+    }
+
+    @Test
+    void approveAllTest() {
+        UserDto user = userController.create(userDto);
+        ItemDto item = itemController.create(user.getId(), itemDto);
+        UserDto user1 = userController.create(userDto1);
+        BookingDto booking = bookingController.create(bookingShortDto, user1.getId());
+        BookingDto booking1 = bookingController.create(BookingShortDto.builder()
+                .start(bookingShortDto.getEnd())
+                .end(bookingShortDto.getEnd().plusDays(1))
+                .itemId(item.getId())
+                .build(), user1.getId());
+        List<BookingResultDto> results = bookingController.approveAll(List.of(booking.getId(), 10L,
+                booking1.getId(), booking.getId()), user.getId(), true);
+        assertEquals(List.of(200, 404, 200, 400), results.stream()
+                .map(BookingResultDto::getStatus)
+                .collect(Collectors.toList()));
+        assertEquals(APPROVED, bookingController.getById(booking.getId(), user1.getId()).getStatus());
+        assertEquals(APPROVED, bookingController.getById(booking1.getId(), user1.getId()).getStatus());
+        assertEquals(404, bookingController.approveAll(List.of(booking.getId()), user1.getId(), false)
+                .get(0).getStatus());
+    }
+
+    @Test
+    void createOverlappingTest() {
+        UserDto user = userController.create(userDto);
+        ItemDto item = itemController.create(user.getId(), itemDto);
+        UserDto user1 = userController.create(userDto1);
+        BookingDto booking = bookingController.create(bookingShortDto, user1.getId());
+        BookingShortDto overlapping = BookingShortDto.builder()
+                .start(bookingShortDto.getStart().plusDays(1))
+                .end(bookingShortDto.getEnd().plusDays(1))
+                .itemId(item.getId())
+                .build();
+        assertThrows(ConflictException.class, () -> bookingController.create(overlapping, user1.getId()));
+        bookingController.create(BookingShortDto.builder()
+                .start(bookingShortDto.getEnd())
+                .end(bookingShortDto.getEnd().plusDays(1))
+                .itemId(item.getId())
+                .build(), user1.getId());
+        bookingController.approve(booking.getId(), user.getId(), false);
+        assertEquals(WAITING, bookingController.create(bookingShortDto, user1.getId()).getStatus());
+        assertEquals(3, bookingController.getAllByUser(user1.getId(), "ALL", 0, 10).size());
+    }
+
     @Test
     void approveToWrongBookingTest() {
         assertThrows(NotFoundException.class, () -> bookingController.approve(1L, 1L, true));
@@ -170,12 +248,61 @@ class BookingControllerTests {
         assertEquals(0, bookingController.getAllByOwner(user.getId(), "PAST", 0, 10).size());
     }
 
+    @Test
+    void getAllByUserAfterTest() {
+        UserDto user = userController.create(userDto);
+        ItemDto item = itemController.create(user.getId(), itemDto);
+        UserDto user1 = userController.create(userDto1);
+        for (int i = 1; i <= 3; i++) {
+            bookingController.create(BookingShortDto.builder()
+                    .start(LocalDateTime.now().plusDays(i))
+                    .end(LocalDateTime.now().plusDays(i).plusHours(1))
+                    .itemId(item.getId()).build(), user1.getId());
+        }
+        BookingPageDto firstPage = bookingController.getAllByUserAfter(user1.getId(), "ALL", "", 2);
+        assertEquals(2, firstPage.getBookings().size());
+        assertEquals(3L, firstPage.getBookings().get(0).getId());
+        assertEquals(2L, firstPage.getBookings().get(1).getId());
+        assertNotNull(firstPage.getNextCursor());
+        BookingPageDto lastPage = bookingController.getAllByUserAfter(user1.getId(), "ALL",
+                firstPage.getNextCursor(), 2);
+        assertEquals(1, lastPage.getBookings().size());
+        assertEquals(1L, lastPage.getBookings().get(0).getId());
+        assertNull(lastPage.getNextCursor());
+        BookingPageDto ownerPage = bookingController.getAllByOwnerAfter(user.getId(), "FUTURE", "", 10);
+        assertEquals(3, ownerPage.getBookings().size());
+        assertNull(ownerPage.getNextCursor());
+        assertEquals(0, bookingController.getAllByOwnerAfter(user.getId(), "PAST", "", 10).getBookings().size());
+    }
+
+    @Test
+    void getAllByUserAfterWrongCursorTest() {
+        UserDto user = userController.create(userDto);
+        assertThrows(BadRequestException.class, () -> bookingController.getAllByUserAfter(user.getId(), "ALL",
+                "wrong cursor", 10));
+        assertThrows(NotFoundException.class, () -> bookingController.getAllByOwnerAfter(10L, "ALL", "", 10));
+    }
+
     @Test
     void getAllByWrongUserTest() {
         assertThrows(NotFoundException.class, () -> bookingController.getAllByUser(1L, "ALL", 0, 10));
         assertThrows(NotFoundException.class, () -> bookingController.getAllByOwner(1L, "ALL", 0, 10));
     }
 
+    @Test
+    void getAllByIdTest() {
+        UserDto user = userController.create(userDto);
+        ItemDto item = itemController.create(user.getId(), itemDto);
+        UserDto user1 = userController.create(userDto1);
+        BookingDto booking = bookingController.create(bookingShortDto, user1.getId());
+        UserDto user2 = userController.create(userDto1.toBuilder().email("user2@email.com").build());
+        assertEquals(booking.getId(), bookingController.getAllById(user1.getId(), List.of(booking.getId(), 10L))
+                .get(0).getId());
+        assertEquals(item.getId(), bookingController.getAllById(user.getId(), List.of(booking.getId()))
+                .get(0).getItem().getId());
+        assertEquals(0, bookingController.getAllById(user2.getId(), List.of(booking.getId())).size());
+    }
+
     @Test
     void getByWrongIdTest() {
         assertThrows(NotFoundException.class, () -> bookingController.getById(1L, 1L));
@@ -10,6 +10,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.BookingController;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exception.BadRequestException;
@@ -28,8 +29,6 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ru.practicum.shareit.booking.BookingStatus.APPROVED;
-import static ru.practicum.shareit.item.ItemMapper.toItem;
-import static ru.practicum.shareit.user.UserMapper.toUser;
 
 @WebMvcTest(controllers = BookingController.class)
 class BookingControllerWithMockMvcTests {
@@ -72,8 +71,8 @@ class BookingControllerWithMockMvcTests {
                 .id(1L)
                 .start(LocalDateTime.of(2022, 12, 12, 10, 0))
                 .end(LocalDateTime.of(2022, 12, 20, 10, 0))
-                .booker(toUser(userDto))
-                .item(toItem(itemDto))
+                .booker(new BookingDto.Booker(userDto.getId()))
+                .item(new BookingDto.Item(itemDto.getId(), itemDto.getName()))
                 .build();
 
         bookingShortDto = BookingShortDto
@@ -140,6 +139,23 @@ class BookingControllerWithMockMvcTests {
                 .andExpect(content().json(mapper.writeValueAsString(List.of(bookingDto))));
     }
 
+    @Test
+    void getAllByUserAfterTest() throws Exception {
+        BookingPageDto bookingPageDto = BookingPageDto.builder()
+                .bookings(List.of(bookingDto))
+                .nextCursor("cursor")
+                .build();
+        when(bookingService.getAllByUserAfter(anyLong(), anyString(), anyString(), anyInt()))
+                .thenReturn(bookingPageDto);
+        mvc.perform(get("/bookings?cursor=")
+                .characterEncoding(StandardCharsets.UTF_8)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("X-Sharer-User-Id", 2L)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json(mapper.writeValueAsString(bookingPageDto)));
+    }
+
     @Test
     void getByIdTest() throws Exception {
         when(bookingService.getById(anyLong(), anyLong()))
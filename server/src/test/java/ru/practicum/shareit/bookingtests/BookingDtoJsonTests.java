@@ -5,6 +5,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.json.JsonTest;
 import org.springframework.boot.test.json.JacksonTester;
 import org.springframework.boot.test.json.JsonContent;
+import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.booking.dto.BookingDto;
 
 import java.time.LocalDateTime;
@@ -33,4 +34,19 @@ class BookingDtoJsonTests {
         assertThat(result).extractingJsonPathStringValue("$.end")
                 .isEqualTo(LocalDateTime.of(2022, 12, 20, 10, 10, 1).toString());
     }
+
+    @Test
+    void testBookingDtoWithItemAndBooker() throws Exception {
+        BookingDto bookingDto = new BookingDto(1L, LocalDateTime.of(2022, 12, 12, 10, 10, 1),
+                LocalDateTime.of(2022, 12, 20, 10, 10, 1), BookingStatus.WAITING, 2L, 3L, "item");
+
+        JsonContent<BookingDto> result = json.write(bookingDto);
+
+        assertThat(result).extractingJsonPathStringValue("$.status").isEqualTo("WAITING");
+        assertThat(result).extractingJsonPathNumberValue("$.booker.id").isEqualTo(2);
+        assertThat(result).extractingJsonPathNumberValue("$.item.id").isEqualTo(3);
+        assertThat(result).extractingJsonPathStringValue("$.item.name").isEqualTo("item");
+        assertThat(result).doesNotHaveJsonPath("$.booker.email");
+        assertThat(result).doesNotHaveJsonPath("$.item.owner");
+    }
 }
@@ -0,0 +1,147 @@
+package ru.practicum.shareit.bookingtests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.SqlStatementRecorder;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * Explains the statements the repository methods actually send, with the parameters they were called with,
+ * so a change of a query shows up here as a change of its plan. Where H2 picks one of the ix_ indexes the test
+ * names it. H2 backs every foreign key with an index of its own and plans the finders filtering only on the
+ * booker or the item owner, and the owner's bookings by status, on those, so for them the tests only check
+ * that no table is scanned.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "ru.practicum.shareit.SqlStatementRecorder")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class BookingIndexTests {
+    private static final int SIZE = 10;
+
+    private static final Pageable PAGE = PageRequest.of(0, SIZE, Sort.by(Sort.Direction.DESC, "start"));
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    private User user;
+
+    @BeforeEach
+    void init() {
+        entityManager.createNativeQuery("insert into users (id, name, email) " +
+                "select x, 'name', 'user' || x || '@email.com' from system_range(1, 100)").executeUpdate();
+        entityManager.createNativeQuery("insert into items (id, name, description, is_available, id_owner) " +
+                "select x, 'name', 'description', true, mod(x, 100) + 1 from system_range(1, 1000)").executeUpdate();
+        entityManager.createNativeQuery("insert into bookings (id, start_date, end_date, item_id, booker_id, status) " +
+                "select x, dateadd(day, mod(x, 300) - 150, localtimestamp), " +
+                "dateadd(day, mod(x, 300) - 148, localtimestamp), mod(x, 1000) + 1, mod(x, 100) + 1, " +
+                "case mod(x, 3) when 0 then 'WAITING' when 1 then 'APPROVED' else 'REJECTED' end " +
+                "from system_range(1, 10000)").executeUpdate();
+        entityManager.createNativeQuery("analyze").executeUpdate();
+        user = entityManager.find(User.class, 1L);
+        SqlStatementRecorder.clear();
+    }
+
+    @Test
+    void findAllByBookerUsesIndexTest() {
+        bookingRepository.findAllByBooker(user, PAGE);
+        assertThat(explain(user.getId(), SIZE + 1), not(containsString("tableScan")));
+    }
+
+    @Test
+    void findAllByBookerAndStartBeforeAndEndAfterUsesIndexTest() {
+        bookingRepository.findAllByBookerAndStartBeforeAndEndAfter(user, now, now, PAGE);
+        assertThat(explain(user.getId(), now, now, SIZE + 1), containsString("IX_BOOKINGS_BOOKER_START"));
+    }
+
+    @Test
+    void findAllByBookerAndEndBeforeUsesIndexTest() {
+        bookingRepository.findAllByBookerAndEndBefore(user, now, PAGE);
+        assertThat(explain(user.getId(), now, SIZE + 1), containsString("IX_BOOKINGS_BOOKER_END"));
+    }
+
+    @Test
+    void findAllByBookerAndStartAfterUsesIndexTest() {
+        bookingRepository.findAllByBookerAndStartAfter(user, now, PAGE);
+        assertThat(explain(user.getId(), now, SIZE + 1), containsString("IX_BOOKINGS_BOOKER_START"));
+    }
+
+    @Test
+    void findAllByBookerAndStatusEqualsUsesIndexTest() {
+        bookingRepository.findAllByBookerAndStatusEquals(user, BookingStatus.WAITING, PAGE);
+        assertThat(explain(user.getId(), BookingStatus.WAITING.name(), SIZE + 1),
+                containsString("IX_BOOKINGS_BOOKER_STATUS_START"));
+    }
+
+    @Test
+    void findAllByItemOwnerUsesIndexTest() {
+        bookingRepository.findAllByItemOwner(user, PAGE);
+        assertThat(explain(user.getId(), SIZE + 1), not(containsString("tableScan")));
+    }
+
+    @Test
+    void findAllByItemOwnerAndStartBeforeAndEndAfterUsesIndexTest() {
+        bookingRepository.findAllByItemOwnerAndStartBeforeAndEndAfter(user, now, now, PAGE);
+        assertThat(explain(user.getId(), now, now, SIZE + 1), containsString("IX_BOOKINGS_ITEM_START"));
+    }
+
+    @Test
+    void findAllByItemOwnerAndEndBeforeUsesIndexTest() {
+        bookingRepository.findAllByItemOwnerAndEndBefore(user, now, PAGE);
+        assertThat(explain(user.getId(), now, SIZE + 1), containsString("IX_BOOKINGS_ITEM_END"));
+    }
+
+    @Test
+    void findAllByItemOwnerAndStartAfterUsesIndexTest() {
+        bookingRepository.findAllByItemOwnerAndStartAfter(user, now, PAGE);
+        assertThat(explain(user.getId(), now, SIZE + 1), containsString("IX_BOOKINGS_ITEM_START"));
+    }
+
+    @Test
+    void findAllByItemOwnerAndStatusEqualsUsesIndexTest() {
+        bookingRepository.findAllByItemOwnerAndStatusEquals(user, BookingStatus.WAITING, PAGE);
+        assertThat(explain(user.getId(), BookingStatus.WAITING.name(), SIZE + 1), not(containsString("tableScan")));
+    }
+
+    @Test
+    void findLastBookingUsesIndexTest() {
+        bookingRepository.findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(1L, BookingStatus.APPROVED, now);
+        assertThat(explain(1L, BookingStatus.APPROVED.name(), now, 1),
+                containsString("IX_BOOKINGS_ITEM_STATUS_START"));
+    }
+
+    /**
+     * Plan of the only statement recorded since the last clear, run with the given parameters in order.
+     */
+    private String explain(Object... parameters) {
+        List<String> statements = SqlStatementRecorder.getStatements();
+        assertThat(statements, hasSize(1));
+
+        return jdbcTemplate.queryForObject("explain " + statements.get(0), String.class, parameters);
+    }
+}
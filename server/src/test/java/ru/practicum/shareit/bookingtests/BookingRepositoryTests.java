@@ -14,6 +14,7 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -69,12 +70,60 @@ class BookingRepositoryTests {
     }
 
     @Test
-    void findAllByItemIdOrderByStartAscTest() {
+    void findLastAndNextBookingByStatusTest() {
         userRepository.save(user);
         itemRepository.save(item);
         userRepository.save(user2);
         bookingRepository.save(booking);
-        assertThat(bookingRepository.findAllByItemIdOrderByStartAsc(item.getId()).size(), equalTo(1));
+        LocalDateTime now = LocalDateTime.now();
+        assertThat(bookingRepository.findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(item.getId(),
+                WAITING, now).orElseThrow().getId(), equalTo(booking.getId()));
+        assertThat(bookingRepository.findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(item.getId(),
+                APPROVED, now).isEmpty(), equalTo(true));
+        assertThat(bookingRepository.findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(item.getId(),
+                WAITING, now).isEmpty(), equalTo(true));
+        assertThat(bookingRepository.findLastBookingsByItemIdIn(List.of(item.getId()), WAITING, now).size(),
+                equalTo(1));
+        assertThat(bookingRepository.findLastBookingsByItemIdIn(List.of(item.getId()), APPROVED, now).size(),
+                equalTo(0));
+        assertThat(bookingRepository.findNextBookingsByItemIdIn(List.of(item.getId()), WAITING, now).size(),
+                equalTo(0));
+    }
+
+    @Test
+    void findLastAndNextBookingTest() {
+        userRepository.save(user);
+        itemRepository.save(item);
+        userRepository.save(user2);
+        booking.setStart(LocalDateTime.now().minusDays(2));
+        booking.setEnd(LocalDateTime.now().minusDays(1));
+        booking.setStatus(APPROVED);
+        bookingRepository.save(booking);
+        Booking nextBooking = bookingRepository.save(Booking.builder()
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .item(item)
+                .booker(user2)
+                .status(APPROVED)
+                .build());
+        bookingRepository.save(Booking.builder()
+                .start(LocalDateTime.now().plusHours(1))
+                .end(LocalDateTime.now().plusHours(2))
+                .item(item)
+                .booker(user2)
+                .status(WAITING)
+                .build());
+        LocalDateTime now = LocalDateTime.now();
+        assertThat(bookingRepository.findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(item.getId(),
+                APPROVED, now).orElseThrow().getId(), equalTo(booking.getId()));
+        assertThat(bookingRepository.findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(item.getId(),
+                APPROVED, now).orElseThrow().getId(), equalTo(nextBooking.getId()));
+        List<Booking> lastBookings = bookingRepository.findLastBookingsByItemIdIn(List.of(item.getId()), APPROVED, now);
+        List<Booking> nextBookings = bookingRepository.findNextBookingsByItemIdIn(List.of(item.getId()), APPROVED, now);
+        assertThat(lastBookings.size(), equalTo(1));
+        assertThat(lastBookings.get(0).getId(), equalTo(booking.getId()));
+        assertThat(nextBookings.size(), equalTo(1));
+        assertThat(nextBookings.get(0).getId(), equalTo(nextBooking.getId()));
     }
 
     @Test
@@ -0,0 +1,95 @@
+package ru.practicum.shareit.bookingtests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.schedule.InMemoryBookingSchedule;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+class InMemoryBookingScheduleTests {
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    private InMemoryBookingSchedule schedule;
+
+    @BeforeEach
+    void init() {
+        schedule = new InMemoryBookingSchedule(mock(BookingRepository.class));
+    }
+
+    @Test
+    void reserveOverlappingTest() {
+        schedule.reserve(booking(1L, 1L, 10, 20));
+        assertThrows(ConflictException.class, () -> schedule.reserve(booking(1L, 2L, 15, 25)));
+        assertThrows(ConflictException.class, () -> schedule.reserve(booking(1L, 2L, 5, 15)));
+        assertThrows(ConflictException.class, () -> schedule.reserve(booking(1L, 2L, 12, 18)));
+        assertThrows(ConflictException.class, () -> schedule.reserve(booking(1L, 2L, 5, 25)));
+        assertThrows(ConflictException.class, () -> schedule.reserve(booking(1L, 2L, 10, 20)));
+        assertDoesNotThrow(() -> schedule.reserve(booking(2L, 2L, 10, 20)));
+    }
+
+    @Test
+    void reserveAdjacentAndEmptyTest() {
+        schedule.reserve(booking(1L, 1L, 10, 20));
+        assertDoesNotThrow(() -> schedule.reserve(booking(1L, 2L, 20, 30)));
+        assertDoesNotThrow(() -> schedule.reserve(booking(1L, 2L, 0, 10)));
+        assertDoesNotThrow(() -> schedule.reserve(booking(1L, 2L, 15, 15)));
+        assertThrows(ConflictException.class, () -> schedule.reserve(booking(1L, 2L, 19, 21)));
+    }
+
+    @Test
+    void releaseTest() {
+        Booking booking = booking(1L, 1L, 10, 20);
+        schedule.reserve(booking);
+        schedule.release(booking(1L, 1L, 10, 25));
+        assertThrows(ConflictException.class, () -> schedule.reserve(booking(1L, 2L, 10, 20)));
+        schedule.release(booking);
+        assertDoesNotThrow(() -> schedule.reserve(booking(1L, 2L, 10, 20)));
+        schedule.releaseAllByBookerId(2L);
+        assertDoesNotThrow(() -> schedule.reserve(booking(1L, 3L, 10, 20)));
+        schedule.releaseAllByItemId(1L);
+        assertDoesNotThrow(() -> schedule.reserve(booking(1L, 3L, 10, 20)));
+    }
+
+    @Test
+    void releaseAllByItemIdsTest() {
+        schedule.reserve(booking(1L, 1L, 10, 20));
+        schedule.reserve(booking(2L, 2L, 10, 20));
+        schedule.reserve(booking(3L, 2L, 10, 20));
+        schedule.releaseAllByItemIds(List.of(1L, 2L));
+        assertDoesNotThrow(() -> schedule.reserve(booking(1L, 3L, 10, 20)));
+        assertDoesNotThrow(() -> schedule.reserve(booking(2L, 3L, 10, 20)));
+        assertThrows(ConflictException.class, () -> schedule.reserve(booking(3L, 3L, 10, 20)));
+    }
+
+    @Test
+    void reserveAmongManyBookingsTest() {
+        for (int i = 0; i < 50_000; i++) {
+            schedule.reserve(booking(1L, 1L, i * 10, i * 10 + 5));
+        }
+        assertDoesNotThrow(() -> schedule.reserve(booking(1L, 2L, 250_005, 250_010)));
+        assertThrows(ConflictException.class, () -> schedule.reserve(booking(1L, 2L, 250_004, 250_006)));
+        assertThrows(ConflictException.class, () -> schedule.reserve(booking(1L, 2L, 499_994, 500_010)));
+        assertDoesNotThrow(() -> schedule.reserve(booking(1L, 2L, 499_995, 500_010)));
+    }
+
+    private Booking booking(Long itemId, Long bookerId, int startHours, int endHours) {
+        return Booking.builder()
+                .start(START.plusHours(startHours))
+                .end(START.plusHours(endHours))
+                .item(Item.builder().id(itemId).build())
+                .booker(User.builder().id(bookerId).build())
+                .status(BookingStatus.WAITING)
+                .build();
+    }
+}
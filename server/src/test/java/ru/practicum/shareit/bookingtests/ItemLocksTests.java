@@ -0,0 +1,137 @@
+package ru.practicum.shareit.bookingtests;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.schedule.ItemLocks;
+import ru.practicum.shareit.exception.ConflictException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Slf4j
+class ItemLocksTests {
+    private static final int THREADS = 8;
+
+    private static final int BOOKINGS_PER_THREAD = 250;
+
+    private final ItemLocks itemLocks = new ItemLocks(Duration.ofSeconds(5));
+
+    private int booked;
+
+    @Test
+    void bookingsOfOneItemAreSerializedTest() throws Exception {
+        run(thread -> 1L, () -> {
+            int current = booked;
+            Thread.yield();
+            booked = current + 1;
+        });
+        assertEquals(THREADS * BOOKINGS_PER_THREAD, booked);
+    }
+
+    @Test
+    void otherItemsDoNotWaitTest() throws Exception {
+        ItemLocks shortLocks = new ItemLocks(Duration.ofMillis(100));
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> holder = executor.submit(() -> inTransaction(() -> {
+                shortLocks.lock(1L);
+                locked.countDown();
+                await(done);
+            }));
+            locked.await();
+            inTransaction(() -> {
+                assertDoesNotThrow(() -> shortLocks.lock(List.of(3L, 2L, 2L)));
+                assertDoesNotThrow(() -> shortLocks.lock(2L));
+                assertThrows(ConflictException.class, () -> shortLocks.lock(1L));
+            });
+            done.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+            inTransaction(() -> assertDoesNotThrow(() -> shortLocks.lock(1L)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Bookings holding the lock for a short write: on one hot item they run one at a time, spread over
+     * many items they run in parallel. The rates depend on the machine, so they are only logged.
+     */
+    @Test
+    void hotItemAndManyItemsThroughputTest() throws Exception {
+        Runnable write = () -> LockSupport.parkNanos(100_000);
+        long hot = run(thread -> 1L, write);
+        long spread = run(thread -> (long) thread, write);
+        int bookings = THREADS * BOOKINGS_PER_THREAD;
+        log.info("Bookings per second: hot item {}, many items {}",
+                bookings * 1_000_000_000L / hot, bookings * 1_000_000_000L / spread);
+    }
+
+    /**
+     * Makes bookings from several threads, each in its own transaction locking the item, returns the elapsed
+     * nanoseconds.
+     */
+    private long run(IntFunction<Long> itemOfThread, Runnable booking) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                Long itemId = itemOfThread.apply(i);
+                results.add(executor.submit(() -> {
+                    await(start);
+                    for (int j = 0; j < BOOKINGS_PER_THREAD; j++) {
+                        inTransaction(() -> {
+                            itemLocks.lock(itemId);
+                            booking.run();
+                        });
+                    }
+                }));
+            }
+            long started = System.nanoTime();
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+
+            return System.nanoTime() - started;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void inTransaction(Runnable action) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            action.run();
+        } finally {
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationManager.clearSynchronization();
+            synchronizations.forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package ru.practicum.shareit.bulktests;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.bulk.BulkController;
+import ru.practicum.shareit.bulk.dto.BulkImportDto;
+import ru.practicum.shareit.item.ItemController;
+import ru.practicum.shareit.user.UserController;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class BulkControllerTests {
+    private static final String NDJSON = "application/x-ndjson";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserController userController;
+
+    @Autowired
+    private ItemController itemController;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Test
+    void importAndExportUsersTest() throws Exception {
+        String users = "{\"id\":1,\"name\":\"first\",\"email\":\"first@email.com\"}\n" +
+                "{\"id\":2,\"name\":\"\",\"email\":\"second@email.com\"}\n" +
+                "\n" +
+                "not json\n" +
+                "{\"id\":120,\"name\":\"third\",\"email\":\"third@email.com\"}\n";
+        mvc.perform(post("/bulk/users").contentType(NDJSON).content(users))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lines", is(5)))
+                .andExpect(jsonPath("$.imported", is(2)))
+                .andExpect(jsonPath("$.failed", is(2)))
+                .andExpect(jsonPath("$.errors[*].line", contains(2, 4)))
+                .andExpect(jsonPath("$.errors[0].error", is("Поле name должно быть непустой строкой")));
+
+        assertEquals(List.of("{\"id\":1,\"name\":\"first\",\"email\":\"first@email.com\"}",
+                "{\"id\":120,\"name\":\"third\",\"email\":\"third@email.com\"}"), export("users"));
+        UserDto created = userController.create(UserDto.builder().name("new").email("new@email.com").build());
+        assertTrue(created.getId() > 120);
+    }
+
+    /**
+     * The second user makes Hibernate take a block of ids, the next id of that block is still handed out
+     * by the server after the import.
+     */
+    @Test
+    void importRejectsIdsHandedOutByServerTest() throws Exception {
+        userController.create(UserDto.builder().name("first").email("first@email.com").build());
+        UserDto second = userController.create(UserDto.builder().name("second").email("second@email.com").build());
+        long nextId = second.getId() + 1;
+        mvc.perform(post("/bulk/users").contentType(NDJSON)
+                        .content("{\"id\":" + nextId + ",\"name\":\"imported\",\"email\":\"imported@email.com\"}\n" +
+                                "{\"id\":1000,\"name\":\"later\",\"email\":\"later@email.com\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)))
+                .andExpect(jsonPath("$.failed", is(1)))
+                .andExpect(jsonPath("$.errors[0].line", is(1)))
+                .andExpect(jsonPath("$.errors[0].error", startsWith("Id " + nextId)));
+        UserDto third = userController.create(UserDto.builder().name("third").email("third@email.com").build());
+        assertEquals(nextId, third.getId());
+    }
+
+    @Test
+    void importResumesFromCheckpointTest() throws Exception {
+        List<String> users = LongStream.rangeClosed(1, 1200)
+                .mapToObj(id -> "{\"id\":" + id + ",\"name\":\"user\",\"email\":\"user" + id + "@email.com\"}")
+                .collect(Collectors.toList());
+        mvc.perform(post("/bulk/users").param("importId", "users-import").contentType(NDJSON)
+                        .content(String.join("\n", users.subList(0, 700))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lines", is(700)))
+                .andExpect(jsonPath("$.imported", is(700)));
+        mvc.perform(post("/bulk/users").param("importId", "users-import").contentType(NDJSON)
+                        .content(String.join("\n", users)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lines", is(1200)))
+                .andExpect(jsonPath("$.imported", is(1200)))
+                .andExpect(jsonPath("$.failed", is(0)));
+        mvc.perform(get("/bulk/imports/users-import"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entity", is("users")))
+                .andExpect(jsonPath("$.lines", is(1200)));
+        mvc.perform(post("/bulk/items").param("importId", "users-import").contentType(NDJSON).content("\n"))
+                .andExpect(status().isBadRequest());
+        assertEquals(1200, export("users").size());
+    }
+
+    /**
+     * A second context started on the same database runs the schema script again, as a restarted server does,
+     * and resumes the import from the checkpoint left by the first one, the rows committed before it are kept.
+     */
+    @Test
+    void importResumesAfterRestartTest() throws Exception {
+        List<String> users = LongStream.rangeClosed(1, 1200)
+                .mapToObj(id -> "{\"id\":" + id + ",\"name\":\"user\",\"email\":\"user" + id + "@email.com\"}")
+                .collect(Collectors.toList());
+        mvc.perform(post("/bulk/users").param("importId", "restarted-import").contentType(NDJSON)
+                        .content(String.join("\n", users.subList(0, 700))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(700)));
+        try (ConfigurableApplicationContext restarted = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + dataSourceProperties.getUrl())) {
+            BulkController bulkController = restarted.getBean(BulkController.class);
+            assertEquals(700, bulkController.getImport("restarted-import").getLines());
+            BulkImportDto resumed = bulkController.importRows("users", "restarted-import",
+                    new ByteArrayInputStream(String.join("\n", users).getBytes(StandardCharsets.UTF_8)));
+            assertEquals(1200, resumed.getLines());
+            assertEquals(1200, resumed.getImported());
+            assertEquals(0, resumed.getFailed());
+            UserController restartedUserController = restarted.getBean(UserController.class);
+            assertEquals("user1@email.com", restartedUserController.getById(1L).getEmail());
+            assertEquals("user1200@email.com", restartedUserController.getById(1200L).getEmail());
+        }
+    }
+
+    @Test
+    void importItemsAndBookingsTest() throws Exception {
+        mvc.perform(post("/bulk/users").contentType(NDJSON)
+                        .content("{\"id\":1,\"name\":\"owner\",\"email\":\"owner@email.com\"}\n" +
+                                "{\"id\":2,\"name\":\"booker\",\"email\":\"booker@email.com\"}\n"))
+                .andExpect(jsonPath("$.imported", is(2)));
+        mvc.perform(post("/bulk/items").contentType(NDJSON)
+                        .content("{\"id\":1,\"name\":\"Дрель\",\"description\":\"Простая дрель\"," +
+                                "\"available\":true,\"ownerId\":1}\n" +
+                                "{\"id\":2,\"name\":\"Отвертка\",\"description\":\"Крестовая\"," +
+                                "\"available\":true,\"ownerId\":99}\n"))
+                .andExpect(jsonPath("$.imported", is(1)))
+                .andExpect(jsonPath("$.errors[0].line", is(2)))
+                .andExpect(jsonPath("$.errors[0].error", startsWith("Строка не записана")));
+        mvc.perform(post("/bulk/bookings").contentType(NDJSON)
+                        .content("{\"id\":1,\"start\":\"2030-01-01T10:00:00\",\"end\":\"2030-01-02T10:00:00\"," +
+                                "\"itemId\":1,\"bookerId\":2,\"status\":\"APPROVED\"}\n" +
+                                "{\"id\":2,\"start\":\"2030-01-03T10:00:00\",\"end\":\"2030-01-02T10:00:00\"," +
+                                "\"itemId\":1,\"bookerId\":2,\"status\":\"WAITING\"}\n" +
+                                "{\"id\":3,\"start\":\"2030-01-01T12:00:00\",\"end\":\"2030-01-01T14:00:00\"," +
+                                "\"itemId\":1,\"bookerId\":2,\"status\":\"WAITING\"}\n" +
+                                "{\"id\":4,\"start\":\"2030-01-01T12:00:00\",\"end\":\"2030-01-01T14:00:00\"," +
+                                "\"itemId\":1,\"bookerId\":2,\"status\":\"REJECTED\"}\n"))
+                .andExpect(jsonPath("$.imported", is(2)))
+                .andExpect(jsonPath("$.errors[0].line", is(2)))
+                .andExpect(jsonPath("$.errors[1].line", is(3)))
+                .andExpect(jsonPath("$.errors[1].error", containsString("уже забронирована")));
+
+        assertEquals(1, itemController.search("дрель", 0, 10).size());
+        assertEquals(List.of("{\"id\":1,\"start\":\"2030-01-01T10:00:00\",\"end\":\"2030-01-02T10:00:00\"," +
+                "\"itemId\":1,\"bookerId\":2,\"status\":\"APPROVED\"}",
+                "{\"id\":4,\"start\":\"2030-01-01T12:00:00\",\"end\":\"2030-01-01T14:00:00\"," +
+                "\"itemId\":1,\"bookerId\":2,\"status\":\"REJECTED\"}"), export("bookings"));
+    }
+
+    @Test
+    void unknownEntityTest() throws Exception {
+        mvc.perform(post("/bulk/comments").contentType(NDJSON).content("{}"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/bulk/imports/unknown"))
+                .andExpect(status().isNotFound());
+    }
+
+    private List<String> export(String entity) throws Exception {
+        MvcResult result = mvc.perform(get("/bulk/" + entity))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        return body.lines().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,116 @@
+package ru.practicum.shareit.cachetests;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.cache.EntityCache;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EntityCacheTests {
+    private UserRepository userRepository;
+
+    private ItemRepository itemRepository;
+
+    private MeterRegistry meterRegistry;
+
+    private EntityCache entityCache;
+
+    private User owner;
+
+    private Item item;
+
+    @BeforeEach
+    void init() {
+        userRepository = mock(UserRepository.class);
+        itemRepository = mock(ItemRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        entityCache = new EntityCache(userRepository, itemRepository, Duration.ofMinutes(5), 100, meterRegistry);
+        owner = User.builder().id(1L).name("owner").email("owner@email.com").build();
+        User requestor = User.builder().id(2L).name("requestor").email("requestor@email.com").build();
+        item = Item.builder()
+                .id(1L)
+                .name("name")
+                .description("description")
+                .available(true)
+                .owner(owner)
+                .request(ItemRequest.builder().id(3L).description("description").requestor(requestor).build())
+                .build();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
+        when(itemRepository.findWithOwnerAndRequestById(1L)).thenReturn(Optional.of(item));
+    }
+
+    @Test
+    void findUserLoadsOnceTest() {
+        User cached = entityCache.findUser(1L).orElseThrow();
+        assertEquals("owner", cached.getName());
+        assertNotSame(owner, cached);
+        assertEquals(cached, entityCache.findUser(1L).orElseThrow());
+        verify(userRepository, times(1)).findById(1L);
+        assertEquals(0.5, meterRegistry.get("cache.hit.ratio").tag("cache", "users").gauge().value());
+    }
+
+    @Test
+    void findUnknownUserTest() {
+        assertFalse(entityCache.findUser(5L).isPresent());
+        assertFalse(entityCache.findUser(5L).isPresent());
+        verify(userRepository, times(2)).findById(5L);
+    }
+
+    @Test
+    void userExistsTest() {
+        when(userRepository.existsUserById(2L)).thenReturn(true);
+        assertTrue(entityCache.userExists(2L));
+        entityCache.findUser(1L);
+        assertTrue(entityCache.userExists(1L));
+        verify(userRepository, never()).existsUserById(1L);
+        verify(userRepository, never()).findById(2L);
+    }
+
+    @Test
+    void findItemCopiesOwnerAndRequestTest() {
+        Item cached = entityCache.findItem(1L).orElseThrow();
+        entityCache.findItem(1L);
+        assertEquals("owner", cached.getOwner().getName());
+        assertEquals(3L, cached.getRequest().getId());
+        assertEquals(2L, cached.getRequest().getRequestor().getId());
+        assertNotSame(owner, cached.getOwner());
+        verify(itemRepository, times(1)).findWithOwnerAndRequestById(1L);
+    }
+
+    @Test
+    void evictItemTest() {
+        entityCache.findItem(1L);
+        entityCache.evictItem(1L);
+        item.setName("updated");
+        assertEquals("updated", entityCache.findItem(1L).orElseThrow().getName());
+        verify(itemRepository, times(2)).findWithOwnerAndRequestById(1L);
+    }
+
+    @Test
+    void evictUserEvictsItemsTest() {
+        entityCache.findUser(1L);
+        entityCache.findItem(1L);
+        entityCache.evictUser(1L);
+        owner.setName("updated");
+        assertEquals("updated", entityCache.findUser(1L).orElseThrow().getName());
+        assertEquals("updated", entityCache.findItem(1L).orElseThrow().getOwner().getName());
+    }
+}
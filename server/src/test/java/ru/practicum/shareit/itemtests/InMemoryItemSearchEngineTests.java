@@ -0,0 +1,169 @@
+package ru.practicum.shareit.itemtests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.InMemoryItemSearchEngine;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class InMemoryItemSearchEngineTests {
+    private ItemRepository itemRepository;
+
+    private BookingRepository bookingRepository;
+
+    private InMemoryItemSearchEngine engine;
+
+    private User owner;
+
+    @BeforeEach
+    void init() {
+        itemRepository = mock(ItemRepository.class);
+        bookingRepository = mock(BookingRepository.class);
+        engine = new InMemoryItemSearchEngine(itemRepository, bookingRepository);
+        owner = User.builder().id(1L).name("name").email("user@email.com").build();
+    }
+
+    @Test
+    void searchRankedByNameTest() {
+        engine.index(item(1L, "Дрель", "Аккумуляторная дрель", true));
+        engine.index(item(2L, "Аккумулятор", "Запасной", true));
+        engine.index(item(3L, "Отвертка", "Обычная", true));
+        assertEquals(List.of(2L, 1L), ids(engine.search("АККУМУЛЯТОР", 0, 10)));
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void searchReturnsItemFieldsTest() {
+        Item item = item(1L, "Дрель", "Простая дрель", true);
+        item.setRequest(ItemRequest.builder().id(5L).build());
+        engine.index(item);
+        ItemDto itemDto = engine.search("дрел", 0, 10).get(0);
+        assertEquals("Дрель", itemDto.getName());
+        assertEquals("Простая дрель", itemDto.getDescription());
+        assertEquals(true, itemDto.getAvailable());
+        assertEquals(5L, itemDto.getRequestId());
+    }
+
+    @Test
+    void searchSkipsUnavailableTest() {
+        engine.index(item(1L, "Дрель", "Простая дрель", false));
+        engine.index(item(2L, "Дрель", "Ударная дрель", true));
+        assertEquals(List.of(2L), ids(engine.search("дрель", 0, 10)));
+        assertEquals(List.of(2L), ids(engine.search("д", 0, 10)));
+        engine.index(item(2L, "Дрель", "Ударная дрель", false));
+        assertEquals(List.of(), ids(engine.search("дрель", 0, 10)));
+    }
+
+    @Test
+    void searchAfterUpdateAndRemoveTest() {
+        engine.index(item(1L, "Дрель", "Простая дрель", true));
+        engine.index(item(1L, "Отвертка", "Крестовая", true));
+        assertEquals(List.of(), ids(engine.search("дрель", 0, 10)));
+        assertEquals(List.of(1L), ids(engine.search("крест", 0, 10)));
+        engine.remove(1L);
+        assertEquals(List.of(), ids(engine.search("крест", 0, 10)));
+        engine.index(item(2L, "Дрель", "Простая дрель", true));
+        User otherOwner = User.builder().id(2L).name("name").email("other@email.com").build();
+        Item answer = item(3L, "Дрель", "Ударная дрель", true);
+        answer.setOwner(otherOwner);
+        engine.index(answer);
+        Item other = item(4L, "Дрель", "Угловая дрель", true);
+        other.setOwner(otherOwner);
+        engine.index(other);
+        engine.removeAllByUserId(owner.getId(), List.of(2L, 3L));
+        assertEquals(List.of(4L), ids(engine.search("дрель", 0, 10)));
+    }
+
+    @Test
+    void removeAllByUserIdRemovesItemsIndexedForOwnerTest() {
+        User otherOwner = User.builder().id(2L).name("name").email("other@email.com").build();
+        engine.index(item(1L, "Дрель", "Простая дрель", true));
+        Item other = item(2L, "Дрель", "Ударная дрель", true);
+        other.setOwner(otherOwner);
+        engine.index(other);
+        engine.index(item(3L, "Дрель", "Угловая дрель", true));
+        engine.index(item(3L, "Отвертка", "Крестовая", true));
+        engine.removeAllByUserId(owner.getId(), List.of());
+        assertEquals(List.of(2L), ids(engine.search("дрель", 0, 10)));
+        assertEquals(List.of(), ids(engine.search("крест", 0, 10)));
+    }
+
+    @Test
+    void searchAvailableSkipsBookedTest() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 4, 0, 0);
+        LocalDateTime end = start.plusDays(2);
+        engine.index(item(1L, "Дрель", "Простая дрель", true));
+        engine.index(item(2L, "Дрель", "Ударная дрель", true));
+        engine.index(item(3L, "Дрель", "Угловая дрель", true));
+        engine.index(item(4L, "Отвертка", "Крестовая", true));
+        when(bookingRepository.findItemIdsByItemIdInAndStatusInAndPeriod(any(), any(), any(), any()))
+                .thenReturn(List.of(2L));
+        assertEquals(List.of(1L, 3L), ids(engine.searchAvailable("дрель", start, end, 0, 10)));
+        verify(bookingRepository).findItemIdsByItemIdInAndStatusInAndPeriod(eq(List.of(1L, 2L, 3L)), any(),
+                eq(start), eq(end));
+        assertEquals(List.of(3L), ids(engine.searchAvailable("д", start, end, 1, 1)));
+        assertEquals(List.of(1L, 2L, 3L), ids(engine.search("дрель", 0, 10)));
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void searchAvailableChecksBookingsOfPageTest() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 4, 0, 0);
+        LocalDateTime end = start.plusDays(2);
+        for (long id = 1; id <= 5000; id++) {
+            engine.index(item(id, "Вещь " + id, "Описание", true));
+        }
+        when(bookingRepository.findItemIdsByItemIdInAndStatusInAndPeriod(any(), any(), any(), any()))
+                .thenReturn(List.of(1L, 2L));
+        assertEquals(List.of(3L, 4L), ids(engine.searchAvailable("вещь", start, end, 0, 2)));
+        verify(bookingRepository).findItemIdsByItemIdInAndStatusInAndPeriod(eq(List.of(1L, 2L)), any(),
+                any(), any());
+        verify(bookingRepository).findItemIdsByItemIdInAndStatusInAndPeriod(eq(List.of(3L, 4L)), any(),
+                any(), any());
+        verifyNoMoreInteractions(bookingRepository);
+    }
+
+    @Test
+    void searchPagedTest() {
+        for (long id = 1; id <= 1000; id++) {
+            engine.index(item(id, "Вещь " + id, id % 2 == 0 ? "Четная" : "Нечетная", true));
+        }
+        List<ItemDto> page = engine.search("нечетная", 20, 10);
+        assertEquals(10, page.size());
+        assertEquals(List.of(41L, 43L, 45L, 47L, 49L, 51L, 53L, 55L, 57L, 59L), ids(page));
+        assertEquals(List.of(999L), ids(engine.search("вещь 999", 0, 10)));
+    }
+
+    private Item item(Long id, String name, String description, boolean available) {
+        return Item.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .available(available)
+                .owner(owner)
+                .build();
+    }
+
+    private List<Long> ids(List<ItemDto> items) {
+        return items.stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList());
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.practicum.shareit.booking.BookingController;
+import ru.practicum.shareit.booking.dto.AvailabilityDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
@@ -19,9 +20,13 @@ import ru.practicum.shareit.user.dto.UserDto;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
@@ -137,6 +142,74 @@ class ItemControllerTests {
         assertEquals(1, itemController.search("Desc", 0, 10).size());
     }
 
+    @Test
+    void searchRankedByNameTest() {
+        userController.create(userDto);
+        ItemDto drill = itemController.create(1L, itemDto.toBuilder().name("Дрель")
+                .description("Аккумуляторная дрель").build());
+        ItemDto battery = itemController.create(1L, itemDto.toBuilder().name("Аккумулятор")
+                .description("Запасной").build());
+        List<ItemDto> items = itemController.search("аккумулятор", 0, 10);
+        assertEquals(2, items.size());
+        assertEquals(battery.getId(), items.get(0).getId());
+        assertEquals(drill.getId(), items.get(1).getId());
+    }
+
+    @Test
+    void searchAfterUpdateAndDeleteTest() {
+        UserDto user = userController.create(userDto);
+        ItemDto item = itemController.create(1L, itemDto);
+        itemController.update(ItemDto.builder().available(false).build(), item.getId(), 1L);
+        assertEquals(0, itemController.search("desc", 0, 10).size());
+        itemController.update(ItemDto.builder().available(true).name("отвертка").build(), item.getId(), 1L);
+        assertEquals(1, itemController.search("ОТВЕРТ", 0, 10).size());
+        assertEquals(0, itemController.search("name", 0, 10).size());
+        itemController.delete(item.getId());
+        assertEquals(0, itemController.search("desc", 0, 10).size());
+        itemController.create(user.getId(), itemDto);
+        userController.delete(user.getId());
+        assertEquals(0, itemController.search("desc", 0, 10).size());
+    }
+
+    @Test
+    void searchAfterRequestorDeleteTest() {
+        UserDto requestor = userController.create(userDto);
+        UserDto owner = userController.create(userDto.toBuilder().email("email2@mail.com").build());
+        ItemRequestDto itemRequest = itemRequestController.create(requestor.getId(), itemRequestDto);
+        itemController.create(owner.getId(), itemDto.toBuilder().requestId(itemRequest.getId()).build());
+        itemController.create(owner.getId(), itemDto);
+        assertEquals(2, itemController.search("desc", 0, 10).size());
+        userController.delete(requestor.getId());
+        assertEquals(1, itemController.getAll(owner.getId(), 0, 10).size());
+        assertEquals(1, itemController.search("desc", 0, 10).size());
+    }
+
+    @Test
+    void searchAvailableTest() {
+        UserDto user = userController.create(userDto);
+        ItemDto drill = itemController.create(user.getId(), itemDto.toBuilder().name("Дрель").build());
+        ItemDto hammerDrill = itemController.create(user.getId(), itemDto.toBuilder().name("Перфоратор")
+                .description("Ударная дрель").build());
+        UserDto user2 = userController.create(userDto.toBuilder().email("email2@mail.com").build());
+        LocalDateTime start = LocalDateTime.of(2030, 1, 4, 0, 0);
+        LocalDateTime end = start.plusDays(2);
+        bookingController.create(BookingShortDto.builder()
+                .start(start.minusDays(1))
+                .end(start.plusHours(1))
+                .itemId(drill.getId()).build(), user2.getId());
+        bookingController.create(BookingShortDto.builder()
+                .start(end)
+                .end(end.plusDays(1))
+                .itemId(hammerDrill.getId()).build(), user2.getId());
+        List<ItemDto> items = itemController.searchAvailable("дрель", start, end, 0, 10);
+        assertEquals(1, items.size());
+        assertEquals(hammerDrill.getId(), items.get(0).getId());
+        bookingController.approve(1L, user.getId(), false);
+        assertEquals(2, itemController.searchAvailable("дрель", start, end, 0, 10).size());
+        assertEquals(0, itemController.searchAvailable("", start, end, 0, 10).size());
+        assertThrows(BadRequestException.class, () -> itemController.searchAvailable("дрель", end, start, 0, 10));
+    }
+
     @Test
     void searchEmptyTextTest() {
         userController.create(userDto);
@@ -158,6 +231,113 @@ class ItemControllerTests {
         assertEquals(1, itemController.getById(1L, 1L).getComments().size());
     }
 
+    @Test
+    void getByIdWithLastAndNextBookingTest() {
+        UserDto user = userController.create(userDto);
+        ItemDto item = itemController.create(user.getId(), itemDto);
+        UserDto user2 = userController.create(userDto.toBuilder().email("email2@mail.com").build());
+        bookingController.create(BookingShortDto.builder()
+                .start(LocalDateTime.now().minusDays(2))
+                .end(LocalDateTime.now().minusDays(1))
+                .itemId(item.getId()).build(), user2.getId());
+        bookingController.create(BookingShortDto.builder()
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .itemId(item.getId()).build(), user2.getId());
+        bookingController.approve(1L, user.getId(), true);
+        ItemDto itemWithoutNextBooking = itemController.getById(item.getId(), user.getId());
+        assertEquals(1L, itemWithoutNextBooking.getLastBooking().getId());
+        assertNull(itemWithoutNextBooking.getNextBooking());
+        bookingController.approve(2L, user.getId(), true);
+        assertEquals(2L, itemController.getById(item.getId(), user.getId()).getNextBooking().getId());
+        assertNull(itemController.getById(item.getId(), user2.getId()).getLastBooking());
+    }
+
+    @Test
+    void getAllWithBookingsAndCommentsTest() {
+        UserDto user = userController.create(userDto);
+        ItemDto item = itemController.create(user.getId(), itemDto);
+        ItemDto item2 = itemController.create(user.getId(), itemDto.toBuilder().name("name2").build());
+        UserDto user2 = userController.create(userDto.toBuilder().email("email2@mail.com").build());
+        bookingController.create(BookingShortDto.builder()
+                .start(LocalDateTime.of(2022, 10, 20, 12, 15))
+                .end(LocalDateTime.of(2022, 10, 27, 12, 15))
+                .itemId(item.getId()).build(), user2.getId());
+        bookingController.approve(1L, user.getId(), true);
+        itemController.createComment(item.getId(), user2.getId(), comment);
+        List<ItemDto> items = itemController.getAll(user.getId(), 0, 10);
+        assertEquals(2, items.size());
+        assertEquals(1L, items.get(0).getLastBooking().getId());
+        assertNull(items.get(0).getNextBooking());
+        assertEquals(1, items.get(0).getComments().size());
+        assertNull(items.get(1).getLastBooking());
+        assertNull(items.get(1).getNextBooking());
+        assertEquals(0, items.get(1).getComments().size());
+    }
+
+    @Test
+    void getAllByIdTest() {
+        UserDto user = userController.create(userDto);
+        ItemDto item = itemController.create(user.getId(), itemDto);
+        ItemDto item2 = itemController.create(user.getId(), itemDto.toBuilder().name("name2").build());
+        UserDto user2 = userController.create(userDto.toBuilder().email("email2@mail.com").build());
+        bookingController.create(BookingShortDto.builder()
+                .start(LocalDateTime.of(2022, 10, 20, 12, 15))
+                .end(LocalDateTime.of(2022, 10, 27, 12, 15))
+                .itemId(item.getId()).build(), user2.getId());
+        bookingController.approve(1L, user.getId(), true);
+        itemController.createComment(item.getId(), user2.getId(), comment);
+        List<ItemDto> items = itemController.getAllById(user.getId(), List.of(item2.getId(), 10L, item.getId()));
+        assertEquals(2, items.size());
+        assertEquals(item2.getId(), items.get(0).getId());
+        assertEquals(0, items.get(0).getComments().size());
+        assertEquals(1L, items.get(1).getLastBooking().getId());
+        assertEquals(1, items.get(1).getComments().size());
+        List<ItemDto> itemsForBooker = itemController.getAllById(user2.getId(), List.of(item.getId()));
+        assertNull(itemsForBooker.get(0).getLastBooking());
+        assertEquals(1, itemsForBooker.get(0).getComments().size());
+    }
+
+    @Test
+    void getAvailabilityTest() {
+        UserDto user = userController.create(userDto);
+        ItemDto item = itemController.create(user.getId(), itemDto);
+        UserDto user2 = userController.create(userDto.toBuilder().email("email2@mail.com").build());
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(10);
+        assertEquals(1, itemController.getAvailability(item.getId(), from, to).size());
+        bookingController.create(BookingShortDto.builder()
+                .start(from.plusDays(2))
+                .end(from.plusDays(3))
+                .itemId(item.getId()).build(), user2.getId());
+        bookingController.create(BookingShortDto.builder()
+                .start(from.plusDays(3))
+                .end(from.plusDays(4))
+                .itemId(item.getId()).build(), user2.getId());
+        List<AvailabilityDto> availability = itemController.getAvailability(item.getId(), from, to);
+        assertEquals(3, availability.size());
+        assertEquals(from.plusDays(2), availability.get(1).getStart());
+        assertEquals(from.plusDays(4), availability.get(1).getEnd());
+        assertFalse(availability.get(1).getAvailable());
+        assertTrue(availability.get(2).getAvailable());
+        bookingController.approve(1L, user.getId(), true);
+        bookingController.approve(2L, user.getId(), false);
+        availability = itemController.getAvailability(item.getId(), from.plusDays(2).plusHours(12), to);
+        assertEquals(2, availability.size());
+        assertEquals(from.plusDays(2).plusHours(12), availability.get(0).getStart());
+        assertEquals(from.plusDays(3), availability.get(0).getEnd());
+        assertFalse(availability.get(0).getAvailable());
+    }
+
+    @Test
+    void getAvailabilityWithWrongPeriodTest() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        assertThrows(NotFoundException.class, () -> itemController.getAvailability(1L, from, from.plusDays(1)));
+        UserDto user = userController.create(userDto);
+        ItemDto item = itemController.create(user.getId(), itemDto);
+        assertThrows(BadRequestException.class, () -> itemController.getAvailability(item.getId(), from, from));
+    }
+
     @Test
     void createCommentByWrongUser() {
         assertThrows(NotFoundException.class, () -> itemController.createComment(1L, 1L, comment));
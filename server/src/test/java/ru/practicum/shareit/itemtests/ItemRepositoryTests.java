@@ -3,9 +3,12 @@ package ru.practicum.shareit.itemtests;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
@@ -16,6 +19,7 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -35,19 +39,42 @@ class ItemRepositoryTests {
     @Autowired
     private CommentRepository commentRepository;
 
+    @Autowired
+    private BookingRepository bookingRepository;
+
     @Test
     void searchTest() {
         User user = userRepository.save(User.builder().name("name").email("email@email.com").build());
         itemRepository.save(Item.builder().name("name").description("description").available(true).owner(user).build());
-        Page<Item> items = itemRepository.search("desc", Pageable.ofSize(10));
+        Slice<Item> items = itemRepository.search("desc", Pageable.ofSize(10));
         assertThat(items.stream().count(), equalTo(1L));
     }
 
+    @Test
+    void searchAvailableTest() {
+        User user = userRepository.save(User.builder().name("name").email("email@email.com").build());
+        Item booked = itemRepository.save(Item.builder().name("name").description("description").available(true)
+                .owner(user).build());
+        Item free = itemRepository.save(Item.builder().name("name2").description("description").available(true)
+                .owner(user).build());
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 0, 0);
+        bookingRepository.save(Booking.builder().start(start.plusDays(1)).end(start.plusDays(2)).item(booked)
+                .booker(user).status(BookingStatus.APPROVED).build());
+        bookingRepository.save(Booking.builder().start(start.plusDays(1)).end(start.plusDays(2)).item(free)
+                .booker(user).status(BookingStatus.REJECTED).build());
+        List<BookingStatus> statuses = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+        Slice<Item> items = itemRepository.searchAvailable("desc", statuses, start, start.plusDays(3),
+                Pageable.ofSize(10));
+        assertThat(items.getContent(), equalTo(List.of(free)));
+        assertThat(itemRepository.searchAvailable("desc", statuses, start, start.plusDays(1), Pageable.ofSize(10))
+                .getNumberOfElements(), equalTo(2));
+    }
+
     @Test
     void findAllByOwnerIdTest() {
         User user = userRepository.save(User.builder().name("name").email("email@email.com").build());
         itemRepository.save(Item.builder().name("name").description("description").available(true).owner(user).build());
-        Page<Item> items = itemRepository.findAllByOwnerId(user.getId(), Pageable.ofSize(10));
+        Slice<Item> items = itemRepository.findAllByOwnerId(user.getId(), Pageable.ofSize(10));
         assertThat(items.stream().count(), equalTo(1L));
     }
 
@@ -72,4 +99,19 @@ class ItemRepositoryTests {
                 .created(LocalDateTime.now()).build());
         assertThat(commentRepository.findAllByItemId(item.getId()).size(), equalTo(1));
     }
+
+    @Test
+    void findAllCommentByItemIdInTest() {
+        User user = userRepository.save(User.builder().name("name").email("email@email.com").build());
+        User user2 = userRepository.save(User.builder().name("name2").email("email2@email.com").build());
+        Item item = itemRepository.save(Item.builder().name("name").description("description")
+                .available(true).owner(user).build());
+        Item item2 = itemRepository.save(Item.builder().name("name2").description("description2")
+                .available(true).owner(user).build());
+        commentRepository.save(Comment.builder().text("text of comment").item(item).author(user2)
+                .created(LocalDateTime.now()).build());
+        commentRepository.save(Comment.builder().text("text of comment2").item(item2).author(user2)
+                .created(LocalDateTime.now()).build());
+        assertThat(commentRepository.findAllByItemIdIn(List.of(item.getId(), item2.getId())).size(), equalTo(2));
+    }
 }
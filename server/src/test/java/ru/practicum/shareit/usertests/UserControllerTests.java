@@ -9,6 +9,8 @@ import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.user.UserController;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -50,9 +52,20 @@ class UserControllerTests {
     @Test
     void deleteTest() {
         UserDto userDto = userController.create(user);
-        assertEquals(1, userController.getAll().size());
+        assertEquals(1, userController.getAll(0, 10).size());
         userController.delete(userDto.getId());
-        assertEquals(0, userController.getAll().size());
+        assertEquals(0, userController.getAll(0, 10).size());
+    }
+
+    @Test
+    void getAllByIdTest() {
+        UserDto userDto = userController.create(user);
+        UserDto userDto1 = userController.create(user.toBuilder().email("user1@email.com").build());
+        List<UserDto> users = userController.getAllById(List.of(userDto1.getId(), 10L, userDto.getId(),
+                userDto1.getId()));
+        assertEquals(2, users.size());
+        assertEquals(userDto1.getId(), users.get(0).getId());
+        assertEquals(userDto.getId(), users.get(1).getId());
     }
 
     @Test
@@ -8,18 +8,22 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.user.UserController;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = UserController.class)
@@ -47,9 +51,44 @@ class UserControllerWithMockMvcTests {
 
     @Test
     void getAllTest() throws Exception {
-        when(userService.getAll())
+        doAnswer(invocation -> {
+            invocation.<Consumer<UserDto>>getArgument(0).accept(userDto);
+            return null;
+        }).when(userService).forEach(any());
+        MvcResult result = mvc.perform(get("/users")
+                .characterEncoding(StandardCharsets.UTF_8)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().json(mapper.writeValueAsString(List.of(userDto))));
+    }
+
+    @Test
+    void getAllAsLinesTest() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<Consumer<UserDto>>getArgument(0).accept(userDto);
+            invocation.<Consumer<UserDto>>getArgument(0).accept(userDto);
+            return null;
+        }).when(userService).forEach(any());
+        MvcResult result = mvc.perform(get("/users")
+                .accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String line = mapper.writeValueAsString(userDto) + "\n";
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(line + line));
+    }
+
+    @Test
+    void getAllPagedTest() throws Exception {
+        when(userService.getAll(0, 10))
                 .thenReturn(List.of(userDto));
-        mvc.perform(get("/users")
+        mvc.perform(get("/users?from=0&size=10")
                 .characterEncoding(StandardCharsets.UTF_8)
                 .contentType(MediaType.APPLICATION_JSON)
                 .header("X-Sharer-User-Id", 1L)